@@ -0,0 +1,113 @@
+package com.skplanet.nlp.trie.benchmark;
+
+import com.skplanet.nlp.trie.MatchResult;
+import com.skplanet.nlp.trie.Trie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One batch of candidate strings looked up one by one against the batch
+ * API.  Candidates are prefixes and variants of a few source strings,
+ * like the rewrites of one request, so they share long prefixes; they are
+ * shuffled so the batch API has to group them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+    @Param({"korean", "english"})
+    public String language;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"512"})
+    public int fanOut;
+
+    @Param({"4096"})
+    public int batch;
+
+    private Trie frozen;
+    private List<String> queries;
+    private MatchResult[] results;
+
+    @Setup
+    public void setup() {
+        String[] keys = Dictionaries.keys(language, size, fanOut, 42);
+        Trie trie = new Trie();
+        for (String key : keys) {
+            trie.put(key, key);
+        }
+        frozen = trie.freeze();
+
+        // 64 candidates per source: its prefixes, some with the last character changed
+        Random random = new Random(7);
+        String[] letters = Dictionaries.keys(language, batch, fanOut, 43);
+        queries = new ArrayList<String>(batch);
+        while (queries.size() < batch) {
+            String source = keys[random.nextInt(keys.length)] + keys[random.nextInt(keys.length)];
+            for (int i = 0; i < 64; i++) {
+                String candidate = source.substring(0, 1 + random.nextInt(source.length()));
+                if (random.nextBoolean()) {
+                    candidate = candidate.substring(0, candidate.length() - 1) + letters[i].charAt(0);
+                }
+                queries.add(candidate);
+            }
+        }
+        Collections.shuffle(queries, random);
+        results = new MatchResult[batch];
+        for (int i = 0; i < batch; i++) {
+            results[i] = new MatchResult();
+        }
+    }
+
+    @Benchmark
+    public int matchLoop() {
+        int matched = 0;
+        for (int i = 0; i < queries.size(); i++) {
+            if (frozen.match(queries.get(i), results[i])) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public int matchAll() {
+        return frozen.matchAll(queries, results);
+    }
+
+    @Benchmark
+    public int prefixMatchLoop() {
+        int matched = 0;
+        for (int i = 0; i < queries.size(); i++) {
+            if (frozen.prefixMatch(queries.get(i), results[i])) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public int prefixMatchAll() {
+        return frozen.prefixMatchAll(queries, results);
+    }
+}
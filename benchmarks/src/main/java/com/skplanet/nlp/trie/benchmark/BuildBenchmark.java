@@ -0,0 +1,119 @@
+package com.skplanet.nlp.trie.benchmark;
+
+import com.skplanet.nlp.trie.DoubleArrayTrie;
+import com.skplanet.nlp.trie.TokenTrie;
+import com.skplanet.nlp.trie.TokenTrieBuilder;
+import com.skplanet.nlp.trie.Trie;
+import com.skplanet.nlp.trie.TrieBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build time of the whole dictionary, one build per measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BuildBenchmark {
+    @Param({"korean", "english"})
+    public String language;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"512"})
+    public int fanOut;
+
+    private String[] keys;
+    private String[][] phrases;
+    private Trie trie;
+
+    @Setup
+    public void setup() {
+        keys = Dictionaries.keys(language, size, fanOut, 42);
+        phrases = Dictionaries.phrases(language, size, fanOut, 42);
+        trie = new Trie();
+        for (String key : keys) {
+            trie.put(key, key);
+        }
+    }
+
+    @Benchmark
+    public Trie put() {
+        Trie t = new Trie();
+        for (String key : keys) {
+            t.put(key, key);
+        }
+        return t;
+    }
+
+    @Benchmark
+    public Trie trieBuilder() {
+        TrieBuilder builder = new TrieBuilder();
+        for (String key : keys) {
+            builder.add(key, key);
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public Trie trieBuilderParallel() {
+        TrieBuilder builder = new TrieBuilder();
+        for (String key : keys) {
+            builder.add(key, key);
+        }
+        return builder.build(ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public TokenTrie tokenBuilder() {
+        TokenTrieBuilder builder = new TokenTrieBuilder();
+        for (String[] phrase : phrases) {
+            builder.add(phrase, phrase);
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public TokenTrie tokenBuilderParallel() {
+        TokenTrieBuilder builder = new TokenTrieBuilder();
+        for (String[] phrase : phrases) {
+            builder.add(phrase, phrase);
+        }
+        return builder.build(ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public TokenTrie tokenPut() {
+        TokenTrie t = new TokenTrie();
+        for (String[] phrase : phrases) {
+            t.put(phrase, phrase);
+        }
+        return t;
+    }
+
+    @Benchmark
+    public Trie freeze() {
+        return trie.freeze();
+    }
+
+    @Benchmark
+    public DoubleArrayTrie doubleArray() {
+        return new DoubleArrayTrie(trie);
+    }
+}
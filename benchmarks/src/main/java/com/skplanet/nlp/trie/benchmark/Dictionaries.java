@@ -0,0 +1,88 @@
+package com.skplanet.nlp.trie.benchmark;
+
+import java.util.Random;
+
+/**
+ * Reproducible synthetic dictionaries for the benchmarks<br>
+ * Keys are drawn from an alphabet of <code>fanOut</code> characters with a
+ * skewed distribution, so the first levels of the trie are dense and the
+ * deeper ones sparse, like real dictionaries.  The same arguments always
+ * give the same keys.
+ */
+public final class Dictionaries {
+    public static final String KOREAN = "korean";
+    public static final String ENGLISH = "english";
+
+    private static final String LATIN = "etaoinshrdlcumwfgypbvkjxqz";
+
+    private Dictionaries() {
+    }
+
+    /**
+     * Returns <code>size</code> keys, duplicates possible.
+     *
+     * @param language {@link #KOREAN} (Hangul syllables) or {@link #ENGLISH} (latin letters)
+     * @param size number of keys
+     * @param fanOut size of the alphabet, at most 26 for english
+     * @param seed random seed
+     */
+    public static String[] keys(String language, int size, int fanOut, long seed) {
+        Random random = new Random(seed);
+        boolean korean = KOREAN.equals(language);
+        int minLength = korean ? 2 : 3;
+        int maxLength = korean ? 8 : 12;
+        String[] keys = new String[size];
+        StringBuilder sb = new StringBuilder(maxLength);
+        for (int i = 0; i < size; i++) {
+            sb.setLength(0);
+            int length = minLength + random.nextInt(maxLength - minLength + 1);
+            for (int j = 0; j < length; j++) {
+                sb.append(letter(random, korean, fanOut));
+            }
+            keys[i] = sb.toString();
+        }
+        return keys;
+    }
+
+    /**
+     * Returns <code>count</code> queries, <code>hitRatio</code> of them
+     * taken from <code>keys</code>, the others random keys of the same
+     * language which mostly miss.
+     */
+    public static String[] queries(String[] keys, String language, int fanOut, int count, double hitRatio, long seed) {
+        Random random = new Random(seed);
+        String[] misses = keys(language, count, fanOut, seed + 1);
+        String[] queries = new String[count];
+        for (int i = 0; i < count; i++) {
+            queries[i] = random.nextDouble() < hitRatio ? keys[random.nextInt(keys.length)] : misses[i];
+        }
+        return queries;
+    }
+
+    /**
+     * Returns <code>size</code> phrases of 1 to 4 tokens out of a
+     * vocabulary of <code>fanOut</code> words.
+     */
+    public static String[][] phrases(String language, int size, int fanOut, long seed) {
+        String[] vocabulary = keys(language, fanOut, Math.min(fanOut, 26), seed + 2);
+        Random random = new Random(seed);
+        String[][] phrases = new String[size][];
+        for (int i = 0; i < size; i++) {
+            String[] phrase = new String[1 + random.nextInt(4)];
+            for (int j = 0; j < phrase.length; j++) {
+                double u = random.nextDouble();
+                phrase[j] = vocabulary[(int) (vocabulary.length * u * u)];
+            }
+            phrases[i] = phrase;
+        }
+        return phrases;
+    }
+
+    private static char letter(Random random, boolean korean, int fanOut) {
+        double u = random.nextDouble();
+        if (korean) {
+            return (char) (0xAC00 + (int) (fanOut * u * u));
+        }
+        return LATIN.charAt((int) (Math.min(fanOut, LATIN.length()) * u * u));
+    }
+}
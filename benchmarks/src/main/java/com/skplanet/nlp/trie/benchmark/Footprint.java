@@ -0,0 +1,81 @@
+package com.skplanet.nlp.trie.benchmark;
+
+import com.skplanet.nlp.trie.DoubleArrayTrie;
+import com.skplanet.nlp.trie.OffHeapTrie;
+import com.skplanet.nlp.trie.RadixTrie;
+import com.skplanet.nlp.trie.TokenTrie;
+import com.skplanet.nlp.trie.Trie;
+
+/**
+ * Heap footprint per entry of every representation<br>
+ * Prints one JSON object per line:
+ * <pre>
+ *   {"structure":"trie","language":"korean","size":100000,"fanOut":512,"bytes":..,"bytesPerEntry":..}
+ * </pre>
+ * usage: Footprint [size] [fanOut]<br>
+ * Run with a fixed heap (-Xms = -Xmx) for stable numbers.
+ */
+public class Footprint {
+    private static Object keep;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int fanOut = args.length > 1 ? Integer.parseInt(args[1]) : 512;
+        for (String language : new String[]{Dictionaries.KOREAN, Dictionaries.ENGLISH}) {
+            String[] keys = Dictionaries.keys(language, size, fanOut, 42);
+            String[][] phrases = Dictionaries.phrases(language, size, fanOut, 42);
+
+            long before = usedMemory();
+            Trie trie = new Trie();
+            for (String key : keys) {
+                trie.put(key, key);
+            }
+            print("trie", language, size, fanOut, usedMemory() - before);
+
+            before = usedMemory();
+            keep = trie.freeze();
+            print("frozenTrie", language, size, fanOut, usedMemory() - before);
+            keep = null;
+
+            before = usedMemory();
+            keep = new DoubleArrayTrie(trie);
+            print("doubleArrayTrie", language, size, fanOut, usedMemory() - before);
+            keep = null;
+
+            before = usedMemory();
+            keep = new RadixTrie(trie);
+            print("radixTrie", language, size, fanOut, usedMemory() - before);
+            keep = null;
+
+            // heap part only, the transition table lives in a direct buffer
+            before = usedMemory();
+            keep = new OffHeapTrie(trie);
+            print("offHeapTrie", language, size, fanOut, usedMemory() - before);
+            keep = null;
+            trie = null;
+
+            before = usedMemory();
+            TokenTrie tokenTrie = new TokenTrie();
+            for (String[] phrase : phrases) {
+                tokenTrie.put(phrase, phrase);
+            }
+            keep = tokenTrie;
+            print("tokenTrie", language, size, fanOut, usedMemory() - before);
+            keep = null;
+        }
+    }
+
+    private static void print(String structure, String language, int size, int fanOut, long bytes) {
+        System.out.println("{\"structure\":\"" + structure + "\",\"language\":\"" + language
+                + "\",\"size\":" + size + ",\"fanOut\":" + fanOut + ",\"bytes\":" + bytes
+                + ",\"bytesPerEntry\":" + (bytes / (double) size) + "}");
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
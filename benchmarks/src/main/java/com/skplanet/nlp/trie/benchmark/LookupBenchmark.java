@@ -0,0 +1,123 @@
+package com.skplanet.nlp.trie.benchmark;
+
+import com.skplanet.nlp.trie.DoubleArrayTrie;
+import com.skplanet.nlp.trie.MatchResult;
+import com.skplanet.nlp.trie.OffHeapTrie;
+import com.skplanet.nlp.trie.RadixTrie;
+import com.skplanet.nlp.trie.Trie;
+import com.skplanet.nlp.trie.TrieData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of single lookups on the character trie, cycling through a
+ * fixed mix of hitting and missing queries.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupBenchmark {
+    @Param({"korean", "english"})
+    public String language;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"512"})
+    public int fanOut;
+
+    @Param({"0.5"})
+    public double hitRatio;
+
+    private Trie trie;
+    private Trie frozen;
+    private DoubleArrayTrie doubleArray;
+    private RadixTrie radix;
+    private OffHeapTrie offHeap;
+    private String[] queries;
+    private final MatchResult result = new MatchResult();
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        String[] keys = Dictionaries.keys(language, size, fanOut, 42);
+        trie = new Trie();
+        for (String key : keys) {
+            trie.put(key, key);
+        }
+        frozen = trie.freeze();
+        doubleArray = new DoubleArrayTrie(trie);
+        radix = new RadixTrie(trie);
+        offHeap = new OffHeapTrie(trie);
+        queries = Dictionaries.queries(keys, language, fanOut, 1 << 14, hitRatio, 7);
+    }
+
+    private String query() {
+        next = (next + 1) & (queries.length - 1);
+        return queries[next];
+    }
+
+    @Benchmark
+    public TrieData match() {
+        return trie.match(query());
+    }
+
+    @Benchmark
+    public boolean matchNoAlloc() {
+        return trie.match(query(), result);
+    }
+
+    @Benchmark
+    public TrieData prefixMatch() {
+        return trie.prefixMatch(query());
+    }
+
+    @Benchmark
+    public TrieData matchRelaxed() {
+        return trie.matchRelaxed(query());
+    }
+
+    @Benchmark
+    public TrieData longestMatch() {
+        return trie.longestMatch(query());
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return trie.contains(query());
+    }
+
+    @Benchmark
+    public boolean frozenMatchNoAlloc() {
+        return frozen.match(query(), result);
+    }
+
+    @Benchmark
+    public boolean doubleArrayMatchNoAlloc() {
+        return doubleArray.match(query(), result);
+    }
+
+    @Benchmark
+    public boolean radixMatchNoAlloc() {
+        return radix.match(query(), result);
+    }
+
+    @Benchmark
+    public boolean offHeapMatchNoAlloc() {
+        return offHeap.match(query(), result);
+    }
+}
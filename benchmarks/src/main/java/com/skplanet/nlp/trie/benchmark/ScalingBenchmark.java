@@ -0,0 +1,93 @@
+package com.skplanet.nlp.trie.benchmark;
+
+import com.skplanet.nlp.trie.MatchResult;
+import com.skplanet.nlp.trie.Trie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup throughput of one frozen trie shared by 1 up to 8 threads.
+ * Use <code>-t</code> with <code>shared</code> for other thread counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalingBenchmark {
+    @Param({"korean"})
+    public String language;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"512"})
+    public int fanOut;
+
+    private Trie frozen;
+    private String[] queries;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        final MatchResult result = new MatchResult();
+        int next = (int) Thread.currentThread().getId() * 7919;
+    }
+
+    @Setup
+    public void setup() {
+        String[] keys = Dictionaries.keys(language, size, fanOut, 42);
+        Trie trie = new Trie();
+        for (String key : keys) {
+            trie.put(key, key);
+        }
+        frozen = trie.freeze();
+        queries = Dictionaries.queries(keys, language, fanOut, 1 << 14, 0.5, 7);
+    }
+
+    private boolean lookup(Cursor cursor) {
+        cursor.next = (cursor.next + 1) & (queries.length - 1);
+        return frozen.match(queries[cursor.next], cursor.result);
+    }
+
+    @Benchmark
+    public boolean shared(Cursor cursor) {
+        return lookup(cursor);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean threads1(Cursor cursor) {
+        return lookup(cursor);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public boolean threads2(Cursor cursor) {
+        return lookup(cursor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean threads4(Cursor cursor) {
+        return lookup(cursor);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean threads8(Cursor cursor) {
+        return lookup(cursor);
+    }
+}
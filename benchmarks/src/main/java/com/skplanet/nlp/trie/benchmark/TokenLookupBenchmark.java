@@ -0,0 +1,101 @@
+package com.skplanet.nlp.trie.benchmark;
+
+import com.skplanet.nlp.trie.TokenIdTrie;
+import com.skplanet.nlp.trie.TokenTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of single lookups on the token trie.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenLookupBenchmark {
+    @Param({"english"})
+    public String language;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"4096"})
+    public int fanOut;
+
+    private TokenTrie trie;
+    private TokenIdTrie idTrie;
+    private String[][] queries;
+    private int[][] idQueries;
+    private final Set<Integer> noSkip = Collections.emptySet();
+    private final Set<Integer> skipSecond = new HashSet<Integer>(Collections.singleton(1));
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        String[][] phrases = Dictionaries.phrases(language, size, fanOut, 42);
+        trie = new TokenTrie();
+        for (String[] phrase : phrases) {
+            trie.put(phrase, phrase);
+        }
+        // half known phrases, half random ones
+        String[][] others = Dictionaries.phrases(language, 1 << 14, fanOut, 43);
+        Random random = new Random(7);
+        queries = new String[1 << 14][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = random.nextBoolean() ? phrases[random.nextInt(phrases.length)] : others[i];
+        }
+        idTrie = new TokenIdTrie(trie);
+        idQueries = new int[queries.length][];
+        for (int i = 0; i < queries.length; i++) {
+            idQueries[i] = idTrie.getVocabulary().encode(queries[i]);
+        }
+    }
+
+    private String[] query() {
+        next = (next + 1) & (queries.length - 1);
+        return queries[next];
+    }
+
+    @Benchmark
+    public Object match() {
+        return trie.match(query());
+    }
+
+    @Benchmark
+    public Object idMatch() {
+        next = (next + 1) & (idQueries.length - 1);
+        return idTrie.match(idQueries[next], 0);
+    }
+
+    @Benchmark
+    public int prefixMatch() {
+        return trie.prefixMatch(query(), 0);
+    }
+
+    @Benchmark
+    public Object relaxedMatch() {
+        return trie.RelaxedMatch(query(), noSkip);
+    }
+
+    @Benchmark
+    public Object relaxedMatchSkip() {
+        return trie.RelaxedMatch(query(), 0, skipSecond);
+    }
+}
@@ -0,0 +1,88 @@
+package com.skplanet.nlp.example;
+
+import com.skplanet.nlp.trie.Trie;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lookup scaling demo for a frozen {@link Trie}<br>
+ * Measures <code>contains()</code> throughput on a shared frozen trie with
+ * 1, 2, 4, ... up to N reader threads.<br>
+ * usage: ConcurrentLookupExample [max threads] [entries] [seconds per round]
+ */
+public class ConcurrentLookupExample {
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int entries = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        // build & freeze
+        Random random = new Random(42);
+        String[] keys = new String[entries];
+        Trie trie = new Trie();
+        for (int i = 0; i < entries; i++) {
+            keys[i] = randomKey(random);
+            trie.put(keys[i], i);
+        }
+        final Trie frozen = trie.freeze();
+        final String[] queries = keys;
+        System.out.println("entries: " + entries + ", rounds of " + seconds + " sec.");
+
+        // warm up
+        run(frozen, queries, 1, 1);
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long ops = run(frozen, queries, threads, seconds);
+            System.out.println("threads: " + threads + "\tops/sec: " + (ops / seconds));
+        }
+    }
+
+    /**
+     * Runs <code>threads</code> readers on the same frozen trie for the
+     * given time and returns the total number of lookups done.
+     */
+    static long run(final Trie frozen, final String[] queries, int threads, int seconds) throws InterruptedException {
+        final AtomicLong total = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final long deadline = System.nanoTime() + seconds * 1000000000L;
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            Thread reader = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long ops = 0;
+                    int idx = seed * 7919;
+                    while (System.nanoTime() < deadline) {
+                        for (int i = 0; i < 1024; i++) {
+                            idx = (idx + 1) % queries.length;
+                            frozen.contains(queries[idx]);
+                        }
+                        ops += 1024;
+                    }
+                    total.addAndGet(ops);
+                    done.countDown();
+                }
+            });
+            reader.start();
+        }
+        start.countDown();
+        done.await();
+        return total.get();
+    }
+
+    static String randomKey(Random random) {
+        int length = 2 + random.nextInt(6);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) (0xAC00 + random.nextInt(512)));
+        }
+        return sb.toString();
+    }
+}
@@ -11,10 +11,26 @@ import java.util.ListIterator;
  * Date: 7/12/13<br>
  */
 public abstract class AbstractTokenTrie {
-    protected TrieNode root;
+    protected final TrieNode root;
+    protected final boolean frozen;
 
     protected AbstractTokenTrie() {
         this.root = new TrieNode("", false, null);
+        this.frozen = false;
+    }
+
+    /**
+     * Creates a deep copy of <code>source</code> in which every node keeps
+     * its children in a sorted, exact sized array.  The copy is built
+     * inside the constructor and reachable only through the final root,
+     * so it is safely published to every thread that sees the new trie.
+     *
+     * @param source trie to be copied
+     * @param frozen true if the copy must not be modified anymore
+     */
+    protected AbstractTokenTrie(AbstractTokenTrie source, boolean frozen) {
+        this.root = compactCopy(source.root);
+        this.frozen = frozen;
     }
 
     /**
@@ -139,6 +155,22 @@ public abstract class AbstractTokenTrie {
             return null;
         }
 
+        /**
+         * Removes <code>child</code> from the children of this node.
+         */
+        void removeChild(TrieNode child) {
+            if (childrenList != null) {
+                childrenList.remove(child);
+                return;
+            }
+            TrieNode[] rest = new TrieNode[children.length - 1];
+            int k = 0;
+            for (TrieNode c : children)
+                if (c != child)
+                    rest[k++] = c;
+            children = rest;
+        }
+
         public int compareTo(TrieNode other) {
             //if (this.nodeChar < other.nodeChar)
             if (isLessThan(this.nodeStr, other.nodeStr))
@@ -150,6 +182,39 @@ public abstract class AbstractTokenTrie {
         }
     }
 
+    /**
+     * Returns the children of <code>node</code> sorted by token, without
+     * converting the node's child container.  Safe to call on a frozen
+     * graph from any thread.
+     */
+    protected static TrieNode[] childrenOf(TrieNode node) {
+        if (node.children != null)
+            return node.children;
+        return node.childrenList.toArray(new TrieNode[node.childrenList.size()]);
+    }
+
+    /**
+     * Returns a deep copy of the graph under <code>node</code>, owned by
+     * this trie, in which every node keeps its children in a sorted array.
+     */
+    private TrieNode compactCopy(TrieNode node) {
+        TrieNode copy = new TrieNode(node.nodeStr, node.terminal, node.data);
+        TrieNode[] children = childrenOf(node);
+        copy.children = new TrieNode[children.length];
+        for (int i = 0; i < children.length; i++)
+            copy.children[i] = compactCopy(children[i]);
+        copy.childrenList = null;
+        return copy;
+    }
+
+    /**
+     * Returns <code>true</code> if this trie is a read-only snapshot
+     * created by <code>freeze()</code>.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
     protected boolean isEqual(String a, String b) {
         int val = compareNode(a, b);
         return val == 0;
@@ -229,6 +294,73 @@ public abstract class AbstractTokenTrie {
         }
     }
 
+    /**
+     * Makes the node of the given tokens a non-terminal node again, drops
+     * its data, and prunes the nodes on its path that no pattern goes
+     * through anymore.
+     *
+     * @return data of the removed pattern, null if it was not a pattern
+     */
+    protected final Object removePatternForward(String[] s) {
+        TrieNode[] path = new TrieNode[s.length + 1];
+        path[0] = root;
+        for (int i = 0; i < s.length; i++) {
+            path[i + 1] = path[i].getChild(s[i]);
+            if (path[i + 1] == null)
+                return null;
+        }
+        TrieNode node = path[s.length];
+        if (node == root || !node.terminal)
+            return null;
+        Object data = node.data;
+        node.terminal = false;
+        node.data = null;
+        for (int i = s.length; i > 0; i--) {
+            if (path[i].terminal || childrenOf(path[i]).length > 0)
+                break;
+            path[i - 1].removeChild(path[i]);
+        }
+        return data;
+    }
+
+    /**
+     * Returns the node of the given tokens if they are a pattern,
+     * otherwise null.
+     */
+    protected final TrieNode findPattern(String[] s) {
+        TrieNode node = root;
+        for (int i = 0; i < s.length && node != null; i++)
+            node = node.getChild(s[i]);
+        if (node == null || node == root || !node.terminal)
+            return null;
+        return node;
+    }
+
+    /**
+     * Drops the branches no pattern goes through and turns every child
+     * container into an exact sized sorted array.  Later puts convert the
+     * containers they touch back into lists.
+     */
+    protected final void compactNodes() {
+        compactNode(root);
+    }
+
+    /**
+     * Compacts the graph under <code>node</code>.
+     *
+     * @return true if a pattern goes through <code>node</code>
+     */
+    private static boolean compactNode(TrieNode node) {
+        TrieNode[] children = childrenOf(node);
+        int kept = 0;
+        for (TrieNode child : children)
+            if (compactNode(child))
+                children[kept++] = child;
+        node.children = kept == children.length ? children : Arrays.copyOf(children, kept);
+        node.childrenList = null;
+        return node.terminal || kept > 0;
+    }
+
     /**
      * Adds any necessary nodes to the ds so that the given
      * <code>String</code> can be decoded <em>in reverse</em> and the
@@ -282,4 +414,12 @@ public abstract class AbstractTokenTrie {
      * @return true if successed otherwise false
      */
     public abstract boolean put(String []key, Object val);
+
+    /**
+     * Returns an immutable snapshot of the {@link AbstractTokenTrie}, which
+     * can be shared by any number of reader threads without locking.
+     *
+     * @return frozen snapshot
+     */
+    public abstract AbstractTokenTrie freeze();
 }
@@ -1,7 +1,9 @@
 package com.skplanet.nlp.trie;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.ListIterator;
 
 /**
@@ -12,23 +14,60 @@ import java.util.ListIterator;
  * Date: 7/12/13<br>
  */
 public abstract class AbstractTrie {
-    protected TrieNode root;
+    protected final TrieNode root;
+    protected final boolean frozen;
 
     protected AbstractTrie() {
         this.root= new TrieNode('\000', false, null);
+        this.frozen= false;
+    }
+
+    /**
+     * Creates a trie on top of an already built node graph.  The root is
+     * kept in a final field, so a graph handed over here is safely
+     * published to every thread that sees the new trie.
+     *
+     * @param root root node of the graph
+     * @param frozen true if the graph must not be modified anymore
+     */
+    protected AbstractTrie(TrieNode root, boolean frozen) {
+        this.root= root;
+        this.frozen= frozen;
     }
 
 
     /**
      * Node class for the character tree.
      */
-    protected class TrieNode implements Comparable<TrieNode> {
+    protected static class TrieNode implements Comparable<TrieNode> {
+        // child dispatch layouts, chosen by layout() once the children are final
+        static final byte BINARY = 0;
+        static final byte SINGLE = 1;
+        static final byte LINEAR = 2;
+        static final byte HASH = 3;
+        static final byte DIRECT = 4;
+
+        // nodes with up to this many children are scanned linearly
+        static final int LINEAR_MAX = 8;
+
         protected TrieNode[] children;
         protected LinkedList<TrieNode> childrenList;
         protected char nodeChar;
         protected boolean terminal;
         protected Object data;
 
+        // LINEAR: node-characters of children; HASH: node-characters of table slots
+        protected char[] keys;
+        // HASH: open addressing slots; DIRECT: children indexed by nodeChar - low
+        protected TrieNode[] table;
+        protected char low;
+        protected byte layout= BINARY;
+
+        // weight of the pattern ending here; highest weight of any pattern
+        // at or below this node, exact after compaction, an upper bound otherwise
+        protected float weight;
+        protected float best;
+
         /**
          * Creates a new TrieNode, which contains the given
          * <code>nodeChar</code>.  If <code>isTerminal</code> is
@@ -50,6 +89,17 @@ public abstract class AbstractTrie {
             this.childrenList= new LinkedList<TrieNode>();
         }
 
+        /**
+         * Creates a new TrieNode whose children are already known, sorted
+         * by node-character.
+         */
+        TrieNode(char nodeChar, boolean isTerminal, Object data, TrieNode[] children) {
+            this.nodeChar= nodeChar;
+            this.terminal= isTerminal;
+            this.data= data;
+            this.children= children;
+        }
+
         /**
          * Returns <code>true</code> if this node is a <em>terminal</em>
          * node in the ds.
@@ -69,6 +119,9 @@ public abstract class AbstractTrie {
                 childrenList= new LinkedList<TrieNode>();
                 childrenList.addAll(Arrays.asList(children));
                 children= null;
+                layout= BINARY;
+                keys= null;
+                table= null;
             }
 
             if (childrenList.size() == 0) {
@@ -103,6 +156,27 @@ public abstract class AbstractTrie {
          * <code>null</code> is returned.
          */
         TrieNode getChild(char nextChar) {
+            switch (layout) {
+                case SINGLE:
+                    return children[0].nodeChar == nextChar ? children[0] : null;
+                case LINEAR:
+                    for (int i= 0; i < keys.length; i++)
+                        if (keys[i] == nextChar)
+                            return children[i];
+                    return null;
+                case HASH:
+                    int mask= table.length - 1;
+                    for (int slot= hash(nextChar, mask); table[slot] != null; slot= (slot + 1) & mask)
+                        if (keys[slot] == nextChar)
+                            return table[slot];
+                    return null;
+                case DIRECT:
+                    int index= nextChar - low;
+                    return index >= 0 && index < table.length ? table[index] : null;
+                default:
+                    break;
+            }
+
             if (children == null) {
                 children= childrenList.toArray(new TrieNode[childrenList.size()]);
                 childrenList= null;
@@ -129,6 +203,96 @@ public abstract class AbstractTrie {
             return null;
         }
 
+        /**
+         * Removes <code>child</code> from the children of this node.
+         */
+        void removeChild(TrieNode child) {
+            if (childrenList != null) {
+                childrenList.remove(child);
+                return;
+            }
+            TrieNode[] rest= new TrieNode[children.length - 1];
+            int k= 0;
+            for (TrieNode c : children)
+                if (c != child)
+                    rest[k++]= c;
+            children= rest;
+            if (layout != BINARY)
+                layout();
+        }
+
+        /**
+         * Chooses the child dispatch of this node by its fan-out: one
+         * compare for a single child, a linear scan over a
+         * <code>char[]</code> for a few, and for many children a direct
+         * table if their characters are dense, an open addressing hash
+         * table otherwise.  The children must already be a sorted array
+         * and must not change afterwards, except through
+         * {@link #getChildAddIfNotPresent}, which falls back to binary
+         * search.
+         */
+        void layout() {
+            int n= children.length;
+            keys= null;
+            table= null;
+            if (n == 0) {
+                layout= BINARY;
+                return;
+            }
+            if (n == 1) {
+                layout= SINGLE;
+                return;
+            }
+            if (n <= LINEAR_MAX) {
+                keys= new char[n];
+                for (int i= 0; i < n; i++)
+                    keys[i]= children[i].nodeChar;
+                layout= LINEAR;
+                return;
+            }
+            int capacity= Integer.highestOneBit(n) << 2;
+            int span= children[n - 1].nodeChar - children[0].nodeChar + 1;
+            if (span <= capacity) {
+                low= children[0].nodeChar;
+                table= new TrieNode[span];
+                for (TrieNode child : children)
+                    table[child.nodeChar - low]= child;
+                layout= DIRECT;
+                return;
+            }
+            int mask= capacity - 1;
+            keys= new char[capacity];
+            table= new TrieNode[capacity];
+            for (TrieNode child : children) {
+                int slot= hash(child.nodeChar, mask);
+                while (table[slot] != null)
+                    slot= (slot + 1) & mask;
+                keys[slot]= child.nodeChar;
+                table[slot]= child;
+            }
+            layout= HASH;
+        }
+
+        /**
+         * Recomputes {@link #best} out of the weight of this node and the
+         * subtree weights of its children, which must be up to date.
+         */
+        void updateBest() {
+            float max= terminal ? weight : Float.NEGATIVE_INFINITY;
+            for (TrieNode child : children)
+                if (child.best > max)
+                    max= child.best;
+            best= max;
+        }
+
+        /**
+         * Fibonacci hash of <code>c</code> into a table of
+         * <code>mask + 1</code> slots, a power of two.
+         */
+        private static int hash(char c, int mask) {
+            return (c * 0x9E3779B9) >>> Integer.numberOfLeadingZeros(mask);
+        }
+
         public int compareTo(TrieNode other) {
             if (this.nodeChar < other.nodeChar)
                 return -1;
@@ -139,6 +303,59 @@ public abstract class AbstractTrie {
         }
     }
 
+    /**
+     * Returns the children of <code>node</code> sorted by node-character,
+     * without converting the node's child container.  Safe to call on
+     * a frozen graph from any thread.
+     */
+    protected static TrieNode[] childrenOf(TrieNode node) {
+        if (node.children != null)
+            return node.children;
+        return node.childrenList.toArray(new TrieNode[node.childrenList.size()]);
+    }
+
+    /**
+     * Returns a deep copy of the graph under <code>node</code> in which
+     * every node keeps its children in a sorted, exact sized array and
+     * dispatches through the layout fitting its fan-out.  Lookups on such
+     * a graph never modify it.
+     */
+    protected static TrieNode compactCopy(TrieNode node) {
+        TrieNode[] children= childrenOf(node);
+        TrieNode[] copies= new TrieNode[children.length];
+        for (int i= 0; i < children.length; i++)
+            copies[i]= compactCopy(children[i]);
+        TrieNode copy= new TrieNode(node.nodeChar, node.terminal, node.data, copies);
+        copy.weight= node.weight;
+        copy.layout();
+        copy.updateBest();
+        return copy;
+    }
+
+    /**
+     * Returns the number of nodes per child dispatch layout.
+     */
+    public NodeLayoutStats getNodeLayoutStats() {
+        NodeLayoutStats stats= new NodeLayoutStats();
+        List<TrieNode> stack= new ArrayList<TrieNode>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            TrieNode node= stack.remove(stack.size() - 1);
+            TrieNode[] children= childrenOf(node);
+            stats.add(node.layout, children.length);
+            stack.addAll(Arrays.asList(children));
+        }
+        return stats;
+    }
+
+    /**
+     * Returns <code>true</code> if this trie is a read-only snapshot
+     * created by <code>freeze()</code>.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
     /**
      * Returns the next {@link TrieNode} visited, given that you are at
      * <code>node</code>, and the the next character in the input is
@@ -159,10 +376,111 @@ public abstract class AbstractTrie {
         int stop= s.length() - 1;
         int i;
         if (s.length() > 0) {
-            for (i= 0; i < stop; i++)
+            // a new pattern weighs 0, an existing one keeps its weight
+            for (i= 0; i < stop; i++) {
+                if (node.best < 0f)
+                    node.best= 0f;
                 node= node.getChildAddIfNotPresent(s.charAt(i), false, null);
+            }
+            if (node.best < 0f)
+                node.best= 0f;
             node= node.getChildAddIfNotPresent(s.charAt(i), true, d);
+            if (node.best < 0f)
+                node.best= 0f;
+        }
+    }
+
+    /**
+     * Same as {@link #addPatternForward(String, Object)}, and sets the
+     * weight of the pattern to <code>weight</code>.  The subtree weights
+     * on the path are raised where needed; they are not lowered when the
+     * pattern had a higher weight before, so they stay upper bounds until
+     * the next compaction.
+     */
+    protected final void addPatternForward(String s, Object d, float weight) {
+        TrieNode node= root;
+        if (s.length() > 0) {
+            for (int i= 0; i < s.length(); i++) {
+                if (node.best < weight)
+                    node.best= weight;
+                boolean last= i == s.length() - 1;
+                node= node.getChildAddIfNotPresent(s.charAt(i), last, last ? d : null);
+            }
+            node.weight= weight;
+            if (node.best < weight)
+                node.best= weight;
+        }
+    }
+
+    /**
+     * Makes the node of the given <code>String</code> a non-terminal
+     * node again, drops its data, and prunes the nodes on its path that
+     * no pattern goes through anymore.
+     *
+     * @return data of the removed pattern, null if it was not a pattern
+     */
+    protected final Object removePatternForward(String s) {
+        TrieNode[] path= new TrieNode[s.length() + 1];
+        path[0]= root;
+        for (int i= 0; i < s.length(); i++) {
+            path[i + 1]= path[i].getChild(s.charAt(i));
+            if (path[i + 1] == null)
+                return null;
+        }
+        TrieNode node= path[s.length()];
+        if (node == root || !node.terminal)
+            return null;
+        Object data= node.data;
+        node.terminal= false;
+        node.data= null;
+        node.weight= 0f;
+        for (int i= s.length(); i > 0; i--) {
+            if (path[i].terminal || childrenOf(path[i]).length > 0)
+                break;
+            path[i - 1].removeChild(path[i]);
         }
+        return data;
+    }
+
+    /**
+     * Returns the node of the given <code>String</code> if it is a
+     * pattern, otherwise null.
+     */
+    protected final TrieNode findPattern(String s) {
+        TrieNode node= root;
+        for (int i= 0; i < s.length() && node != null; i++)
+            node= node.getChild(s.charAt(i));
+        if (node == null || node == root || !node.terminal)
+            return null;
+        return node;
+    }
+
+    /**
+     * Drops the branches no pattern goes through and turns every child
+     * container into an exact sized sorted array with the dispatch layout
+     * fitting its fan-out.  Later puts convert the containers they touch
+     * back into lists.
+     */
+    protected final void compactNodes() {
+        compactNode(root);
+    }
+
+    /**
+     * Compacts the graph under <code>node</code>.
+     *
+     * @return true if a pattern goes through <code>node</code>
+     */
+    private static boolean compactNode(TrieNode node) {
+        TrieNode[] children= childrenOf(node);
+        int kept= 0;
+        for (TrieNode child : children)
+            if (compactNode(child))
+                children[kept++]= child;
+        node.children= kept == children.length ? children : Arrays.copyOf(children, kept);
+        node.childrenList= null;
+        node.layout();
+        node.updateBest();
+        return node.terminal || kept > 0;
     }
 
     /**
@@ -215,4 +533,12 @@ public abstract class AbstractTrie {
      * @return true if successed, otherwise false
      */
     public abstract boolean put(String key, Object val);
+
+    /**
+     * Returns an immutable snapshot of the {@link AbstractTrie}, which can
+     * be shared by any number of reader threads without locking.
+     *
+     * @return frozen snapshot
+     */
+    public abstract AbstractTrie freeze();
 }
@@ -0,0 +1,162 @@
+package com.skplanet.nlp.trie;
+
+/**
+ * Aho-Corasick automaton over the patterns of a character {@link Trie}<br>
+ * Finds every pattern occurring anywhere in a text in one linear pass,
+ * instead of calling <code>prefixMatch()</code> at every offset.  The
+ * automaton is a read-only copy of the trie's node graph: states are
+ * numbered breadth first, so the children of a state are consecutive and
+ * edge <code>e</code> leads to state <code>e + 1</code>.<br>
+ * Characters are matched as they are, spaces are not skipped.  The
+ * automaton is immutable and can be shared between threads.
+ */
+public class AhoCorasick {
+    private static final int ROOT = AutomatonBuilder.ROOT;
+
+    // edges of state s are firstEdge[s] .. firstEdge[s + 1] - 1, sorted by character
+    private final int[] firstEdge;
+    private final char[] edgeChar;
+    private final int[] fail;
+    private final int[] out;
+    private final int[] depth;
+    private final boolean[] terminal;
+    private final Object[] values;
+    private final int maxDepth;
+
+    /**
+     * Builds the automaton.  The source trie is only read and can be
+     * dropped afterwards.
+     *
+     * @param trie trie holding the patterns
+     */
+    public AhoCorasick(AbstractTrie trie) {
+        CharNodeBuilder builder = new CharNodeBuilder();
+        builder.build(trie.root);
+        firstEdge = builder.firstEdge;
+        edgeChar = builder.edgeChar;
+        fail = builder.fail;
+        out = builder.out;
+        depth = builder.depth;
+        terminal = builder.terminal;
+        values = builder.values;
+        maxDepth = builder.maxDepth;
+    }
+
+    /**
+     * Returns the number of states.
+     */
+    public int size() {
+        return fail.length;
+    }
+
+    /**
+     * Scans <code>text</code> and reports every occurrence of every
+     * pattern, overlapping ones included.
+     *
+     * @param text text to be scanned
+     * @param handler receives (start, end, value) of every hit
+     */
+    public void scan(CharSequence text, MatchHandler handler) {
+        scan(text, MatchPolicy.OVERLAPPING, handler);
+    }
+
+    /**
+     * Scans <code>text</code> and reports the occurrences of the patterns
+     * selected by <code>policy</code>.  Hits are reported in the order of
+     * their end, longest first among hits ending at the same position.
+     *
+     * @param text text to be scanned
+     * @param policy which of the overlapping hits to report
+     * @param handler receives (start, end, value) of every hit
+     */
+    public void scan(CharSequence text, MatchPolicy policy, final MatchHandler handler) {
+        HitCollector collector = new HitCollector(depth, out, terminal, maxDepth, policy) {
+            @Override
+            boolean hit(int start, int end, int state) {
+                return handler.onMatch(start, end, values[state]);
+            }
+        };
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, text.charAt(i));
+            if (state != ROOT && !collector.step(state, i + 1)) {
+                return;
+            }
+        }
+        collector.finish(text.length());
+    }
+
+    /**
+     * Returns the state reached from <code>state</code> on <code>c</code>,
+     * following failure links as needed.
+     */
+    private int next(int state, char c) {
+        int t;
+        while ((t = edge(state, c)) < 0) {
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+        return t;
+    }
+
+    private int edge(int state, char c) {
+        return edge(firstEdge, edgeChar, state, c);
+    }
+
+    /**
+     * Returns the child of <code>state</code> on <code>c</code>, or -1.
+     */
+    private static int edge(int[] firstEdge, char[] edgeChar, int state, char c) {
+        int min = firstEdge[state];
+        int max = firstEdge[state + 1] - 1;
+        while (min <= max) {
+            int mid = (min + max) >>> 1;
+            if (edgeChar[mid] < c)
+                min = mid + 1;
+            else if (edgeChar[mid] > c)
+                max = mid - 1;
+            else
+                return mid + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the node graph of an {@link AbstractTrie}.
+     */
+    private static class CharNodeBuilder extends AutomatonBuilder<AbstractTrie.TrieNode> {
+        char[] edgeChar;
+
+        @Override
+        AbstractTrie.TrieNode[] children(AbstractTrie.TrieNode node) {
+            return AbstractTrie.childrenOf(node);
+        }
+
+        @Override
+        boolean isTerminal(AbstractTrie.TrieNode node) {
+            return node.terminal;
+        }
+
+        @Override
+        Object value(AbstractTrie.TrieNode node) {
+            return node.data;
+        }
+
+        @Override
+        void allocateLabels(int edges) {
+            edgeChar = new char[edges];
+        }
+
+        @Override
+        void setLabel(int e, AbstractTrie.TrieNode child) {
+            edgeChar[e] = child.nodeChar;
+        }
+
+        @Override
+        int edgeWithLabelOf(int state, int e) {
+            return edge(firstEdge, edgeChar, state, edgeChar[e]);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.skplanet.nlp.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Dense codes for the characters of a trie<br>
+ * Maps every character of a trie to a positive code, the character
+ * carried by the most nodes getting 1, so that the transitions of a
+ * double array stay nearly free of holes even for large alphabets such as
+ * Hangul.  The map is split into pages of 256 characters; pages without
+ * any character of the trie share one empty page.
+ */
+final class Alphabet {
+    private static final int[] EMPTY = new int[256];
+
+    private final int[][] pages = new int[256][];
+    // chars[code - 1] is the character with that code
+    private final char[] chars;
+
+    /**
+     * @param chars the characters in the order of their codes
+     */
+    Alphabet(char[] chars) {
+        this.chars = chars;
+        Arrays.fill(pages, EMPTY);
+        for (int i = 0; i < chars.length; i++) {
+            char c = chars[i];
+            if (pages[c >>> 8] == EMPTY) {
+                pages[c >>> 8] = new int[256];
+            }
+            pages[c >>> 8][c & 0xFF] = i + 1;
+        }
+    }
+
+    /**
+     * Numbers the characters of the graph under <code>root</code> by how
+     * many nodes carry them.
+     */
+    static Alphabet of(AbstractTrie.TrieNode root) {
+        final int[] counts = new int[Character.MAX_VALUE + 1];
+        List<AbstractTrie.TrieNode> stack = new ArrayList<AbstractTrie.TrieNode>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            for (AbstractTrie.TrieNode child : AbstractTrie.childrenOf(stack.remove(stack.size() - 1))) {
+                counts[child.nodeChar]++;
+                stack.add(child);
+            }
+        }
+        List<Integer> used = new ArrayList<Integer>();
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] > 0) {
+                used.add(c);
+            }
+        }
+        Collections.sort(used, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return counts[b] != counts[a] ? counts[b] - counts[a] : a - b;
+            }
+        });
+        char[] chars = new char[used.size()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) used.get(i).intValue();
+        }
+        return new Alphabet(chars);
+    }
+
+    /**
+     * Returns the code of <code>c</code>, or 0 if no pattern contains it.
+     */
+    int code(char c) {
+        return pages[c >>> 8][c & 0xFF];
+    }
+
+    /**
+     * Returns the characters in the order of their codes.  The array must
+     * not be modified.
+     */
+    char[] chars() {
+        return chars;
+    }
+
+    /**
+     * Reads the node graph of an {@link AbstractTrie}, character
+     * <code>c</code> being code <code>alphabet.code(c)</code>.
+     */
+    static class NodeBuilder extends DoubleArrayTrie.CharNodeBuilder {
+        private final Alphabet alphabet;
+        private final Comparator<AbstractTrie.TrieNode> byCode = new Comparator<AbstractTrie.TrieNode>() {
+            @Override
+            public int compare(AbstractTrie.TrieNode a, AbstractTrie.TrieNode b) {
+                return code(a) - code(b);
+            }
+        };
+
+        NodeBuilder(Alphabet alphabet) {
+            this.alphabet = alphabet;
+        }
+
+        @Override
+        AbstractTrie.TrieNode[] children(AbstractTrie.TrieNode node) {
+            AbstractTrie.TrieNode[] children = super.children(node).clone();
+            Arrays.sort(children, byCode);
+            return children;
+        }
+
+        @Override
+        int code(AbstractTrie.TrieNode node) {
+            return alphabet.code(node.nodeChar);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.skplanet.nlp.trie;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the state graph of an Aho-Corasick automaton out of any tree<br>
+ * States are numbered breadth first, so the children of a state are
+ * consecutive and edge <code>e</code> leads to state <code>e + 1</code>;
+ * the edges of state <code>s</code> are <code>firstEdge[s]</code> ..
+ * <code>firstEdge[s + 1] - 1</code>.  Subclasses keep the edge labels,
+ * which must be returned in ascending order by {@link #children(Object)}.
+ *
+ * @param <N> node type of the source tree
+ */
+abstract class AutomatonBuilder<N> {
+    static final int ROOT = 0;
+
+    int[] firstEdge;
+    int[] fail;
+    // nearest terminal proper suffix per state, -1 if none
+    int[] out;
+    int[] depth;
+    boolean[] terminal;
+    Object[] values;
+    int maxDepth;
+
+    abstract N[] children(N node);
+
+    abstract boolean isTerminal(N node);
+
+    abstract Object value(N node);
+
+    /**
+     * Makes room for the labels of <code>edges</code> edges.
+     */
+    abstract void allocateLabels(int edges);
+
+    /**
+     * Stores the label of <code>child</code> as the label of edge
+     * <code>e</code>.
+     */
+    abstract void setLabel(int e, N child);
+
+    /**
+     * Returns the child of <code>state</code> on the label of edge
+     * <code>e</code>, or -1.
+     */
+    abstract int edgeWithLabelOf(int state, int e);
+
+    void build(N root) {
+        List<N> nodes = new ArrayList<N>();
+        List<N[]> children = new ArrayList<N[]>();
+        nodes.add(root);
+        for (int s = 0; s < nodes.size(); s++) {
+            N[] c = children(nodes.get(s));
+            children.add(c);
+            for (N child : c) {
+                nodes.add(child);
+            }
+        }
+
+        int size = nodes.size();
+        firstEdge = new int[size + 1];
+        fail = new int[size];
+        out = new int[size];
+        depth = new int[size];
+        terminal = new boolean[size];
+        values = new Object[size];
+        allocateLabels(size - 1);
+        int e = 0;
+        int deepest = 0;
+        for (int s = 0; s < size; s++) {
+            N node = nodes.get(s);
+            nodes.set(s, null);
+            firstEdge[s] = e;
+            for (N child : children.get(s)) {
+                setLabel(e, child);
+                depth[e + 1] = depth[s] + 1;
+                e++;
+            }
+            children.set(s, null);
+            if (s != ROOT && isTerminal(node)) {
+                terminal[s] = true;
+                values[s] = value(node);
+                deepest = Math.max(deepest, depth[s]);
+            }
+        }
+        firstEdge[size] = e;
+        maxDepth = deepest;
+
+        // failure and output links, parents are always done before their children
+        out[ROOT] = -1;
+        for (int s = 0; s < size; s++) {
+            for (e = firstEdge[s]; e < firstEdge[s + 1]; e++) {
+                int t = e + 1;
+                int f = ROOT;
+                if (s != ROOT) {
+                    f = fail[s];
+                    int next;
+                    while ((next = edgeWithLabelOf(f, e)) < 0 && f != ROOT) {
+                        f = fail[f];
+                    }
+                    f = next < 0 ? ROOT : next;
+                }
+                fail[t] = f;
+                out[t] = terminal[f] ? f : out[f];
+            }
+        }
+    }
+}
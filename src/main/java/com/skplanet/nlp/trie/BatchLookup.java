@@ -0,0 +1,183 @@
+package com.skplanet.nlp.trie;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Batch lookup over a {@link Trie}<br>
+ * Visits the queries grouped by their first characters and keeps the
+ * lookup state of every position of the previous query, so a query only
+ * walks the part after the prefix it shares with the previous one.  The state after each
+ * position is: the node reached (null once the path ended), the end of
+ * the path and the end and value of the last pattern seen.
+ */
+class BatchLookup {
+    // sorted ranges smaller than this are not split between threads
+    static final int SPLIT_THRESHOLD = 1024;
+
+    private final AbstractTrie.TrieNode root;
+    private final List<? extends CharSequence> queries;
+    private final MatchResult[] results;
+    private final boolean prefix;
+
+    BatchLookup(AbstractTrie.TrieNode root, List<? extends CharSequence> queries, MatchResult[] results, boolean prefix) {
+        this.root = root;
+        this.queries = queries;
+        this.results = results;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Looks up every query, on <code>pool</code> if it is not null.
+     *
+     * @return number of matched queries
+     */
+    int run(ForkJoinPool pool) {
+        int[] order = sort();
+        if (pool == null || order.length < 2 * SPLIT_THRESHOLD) {
+            return walk(order, 0, order.length);
+        }
+        Task task = new Task(order, 0, order.length);
+        pool.invoke(task);
+        return task.matched;
+    }
+
+    /**
+     * Returns the query indexes grouped by their first two characters,
+     * in one counting sort pass over hash buckets of those characters.
+     * Comparing whole queries costs more than the lookups it saves; the
+     * walk finds longer shared prefixes inside each group by itself.
+     */
+    private int[] sort() {
+        int n = queries.size();
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(n, 1));
+        int[] bucket = new int[n];
+        int[] start = new int[(1 << bits) + 1];
+        for (int i = 0; i < n; i++) {
+            CharSequence query = queries.get(i);
+            int head = 0;
+            if (query.length() > 0) {
+                head = query.charAt(0) << 16 | (query.length() > 1 ? query.charAt(1) : 0);
+            }
+            bucket[i] = (int) (((head * 0x9E3779B9L) & 0xffffffffL) >>> (32 - bits));
+            start[bucket[i] + 1]++;
+        }
+        for (int b = 1; b < start.length; b++) {
+            start[b] += start[b - 1];
+        }
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[start[bucket[i]]++] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Looks up the queries <code>order[from .. to - 1]</code>.
+     *
+     * @return number of matched queries
+     */
+    int walk(int[] order, int from, int to) {
+        int capacity = 16;
+        AbstractTrie.TrieNode[] nodes = new AbstractTrie.TrieNode[capacity];
+        int[] pathEnd = new int[capacity];
+        int[] patternEnd = new int[capacity];
+        Object[] values = new Object[capacity];
+        nodes[0] = root;
+        pathEnd[0] = -1;
+        patternEnd[0] = -1;
+
+        int matched = 0;
+        CharSequence prev = "";
+        // positions 0 .. walked of the previous query are valid
+        int walked = 0;
+        for (int k = from; k < to; k++) {
+            CharSequence query = queries.get(order[k]);
+            int length = query.length();
+            if (length + 1 > capacity) {
+                capacity = Math.max(length + 1, capacity << 1);
+                nodes = Arrays.copyOf(nodes, capacity);
+                pathEnd = Arrays.copyOf(pathEnd, capacity);
+                patternEnd = Arrays.copyOf(patternEnd, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            int i = 0;
+            int max = Math.min(walked, length);
+            while (i < max && prev.charAt(i) == query.charAt(i)) {
+                i++;
+            }
+            // walk on until the input or the path ends
+            for (; i < length && nodes[i] != null; i++) {
+                AbstractTrie.TrieNode node = nodes[i];
+                pathEnd[i + 1] = pathEnd[i];
+                patternEnd[i + 1] = patternEnd[i];
+                values[i + 1] = values[i];
+                if (query.charAt(i) != ' ') {
+                    node = node.getChild(query.charAt(i));
+                    if (node != null) {
+                        pathEnd[i + 1] = i + 1;
+                        if (node.isTerminal()) {
+                            patternEnd[i + 1] = i + 1;
+                            values[i + 1] = node.data;
+                        }
+                    }
+                }
+                nodes[i + 1] = node;
+            }
+            prev = query;
+            walked = i;
+
+            MatchResult result = results[order[k]];
+            if (result == null) {
+                result = new MatchResult();
+                results[order[k]] = result;
+            }
+            result.reset(query, 0);
+            if (prefix) {
+                result.setEnd(pathEnd[i]);
+                result.setValue(values[i]);
+                if (values[i] != null) {
+                    matched++;
+                }
+            } else if (i == length && nodes[i] != null && patternEnd[i] >= 0) {
+                result.setEnd(patternEnd[i]);
+                result.setValue(values[i]);
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Splits a sorted range in halves down to {@link #SPLIT_THRESHOLD}
+     * queries, each half walked with its own state.  Never serialized.
+     */
+    @SuppressWarnings("serial")
+    private class Task extends RecursiveAction {
+        private final int[] order;
+        private final int from;
+        private final int to;
+        int matched;
+
+        Task(int[] order, int from, int to) {
+            this.order = order;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < 2 * SPLIT_THRESHOLD) {
+                matched = walk(order, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            Task left = new Task(order, from, mid);
+            Task right = new Task(order, mid, to);
+            invokeAll(left, right);
+            matched = left.matched + right.matched;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.skplanet.nlp.trie;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Result cache in front of a {@link TokenTrie}<br>
+ * Answers repeated <code>match</code> and <code>RelaxedMatch</code>
+ * queries from a bounded segmented LRU cache per operation instead of
+ * walking the trie again.  Misses are cached too.  Every
+ * <code>put</code>, <code>remove</code>, <code>replace</code> or adding
+ * <code>computeIfAbsent</code> on the trie invalidates the cached
+ * results; frozen tries never do.  Thread-safe as long as the trie is
+ * only read concurrently, which holds for frozen tries.  Query arrays
+ * are copied when their result is cached, so callers may reuse them.
+ */
+public class CachedTokenTrie {
+    private final TokenTrie trie;
+    private final ResultCache<TokenQuery> matchCache;
+    private final ResultCache<TokenQuery> relaxedCache;
+    private final ResultCache<TokenQuery> relaxedFromCache;
+
+    /**
+     * Constructor
+     *
+     * @param trie trie to be cached
+     * @param capacity largest number of results kept per operation
+     */
+    public CachedTokenTrie(TokenTrie trie, int capacity) {
+        this.trie = trie;
+        this.matchCache = new ResultCache<TokenQuery>(capacity);
+        this.relaxedCache = new ResultCache<TokenQuery>(capacity);
+        this.relaxedFromCache = new ResultCache<TokenQuery>(capacity);
+    }
+
+    /**
+     * Cached {@link TokenTrie#match(String[])}
+     */
+    public Object match(String[] input) {
+        int version = trie.modCount;
+        TokenQuery query = TokenQuery.of(input, 0, null);
+        Object cached = matchCache.get(query, version);
+        if (cached == null) {
+            Object value = trie.match(input);
+            matchCache.put(query.copy(), value, version);
+            return value;
+        }
+        return cached == ResultCache.NONE ? null : cached;
+    }
+
+    /**
+     * Cached {@link TokenTrie#RelaxedMatch(String[], Set)}
+     */
+    public Object RelaxedMatch(String[] input, Set<Integer> skipPoint) {
+        int version = trie.modCount;
+        TokenQuery query = TokenQuery.of(input, 0, skipPoint);
+        Object cached = relaxedCache.get(query, version);
+        if (cached == null) {
+            Object value = trie.RelaxedMatch(input, skipPoint);
+            relaxedCache.put(query.copy(), value, version);
+            return value;
+        }
+        return cached == ResultCache.NONE ? null : cached;
+    }
+
+    /**
+     * Cached {@link TokenTrie#RelaxedMatch(String[], int, Set)}
+     */
+    public Object RelaxedMatch(String[] input, int offset, Set<Integer> skipPoint) {
+        int version = trie.modCount;
+        TokenQuery query = TokenQuery.of(input, offset, skipPoint);
+        Object cached = relaxedFromCache.get(query, version);
+        if (cached == null) {
+            Object value = trie.RelaxedMatch(input, offset, skipPoint);
+            relaxedFromCache.put(query.copy(), value, version);
+            return value;
+        }
+        return cached == ResultCache.NONE ? null : cached;
+    }
+
+    /**
+     * Returns the cached trie.
+     */
+    public TokenTrie getTrie() {
+        return trie;
+    }
+
+    /**
+     * Returns the number of queries answered from the cache.
+     */
+    public long getHitCount() {
+        return matchCache.getHitCount() + relaxedCache.getHitCount() + relaxedFromCache.getHitCount();
+    }
+
+    /**
+     * Returns the number of queries that had to walk the trie.
+     */
+    public long getMissCount() {
+        return matchCache.getMissCount() + relaxedCache.getMissCount() + relaxedFromCache.getMissCount();
+    }
+
+    /**
+     * Returns the fraction of queries answered from the cache, 0 if none
+     * was asked yet.
+     */
+    public double getHitRate() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0 : hits / (double) total;
+    }
+
+    /**
+     * Returns the number of results dropped to make room for new ones.
+     */
+    public long getEvictionCount() {
+        return matchCache.getEvictionCount() + relaxedCache.getEvictionCount() + relaxedFromCache.getEvictionCount();
+    }
+
+    /**
+     * Returns the number of results currently cached.
+     */
+    public int size() {
+        return matchCache.size() + relaxedCache.size() + relaxedFromCache.size();
+    }
+
+    /**
+     * Drops all cached results.
+     */
+    public void clear() {
+        matchCache.clear();
+        relaxedCache.clear();
+        relaxedFromCache.clear();
+    }
+
+    /**
+     * Cache key of a token query: the tokens from the offset on and the
+     * skipped positions among them.
+     */
+    private static final class TokenQuery {
+        private final String[] tokens;
+        private final int offset;
+        private final int[] skip;
+        private final int hash;
+
+        private TokenQuery(String[] tokens, int offset, int[] skip) {
+            this.tokens = tokens;
+            this.offset = offset;
+            this.skip = skip;
+            int h = 0;
+            for (int i = offset; i < tokens.length; i++) {
+                h = 31 * h + tokens[i].hashCode();
+            }
+            for (int point : skip) {
+                h = 31 * h + point - offset;
+            }
+            this.hash = h;
+        }
+
+        /**
+         * Returns the key of a query on the tokens from <code>offset</code>
+         * on, skipping the positions of <code>skipPoint</code>.  The key
+         * shares the caller's array.
+         */
+        static TokenQuery of(String[] tokens, int offset, Set<Integer> skipPoint) {
+            // every offset past the end queries no token at all
+            offset = Math.min(offset, tokens.length);
+            if (skipPoint == null || skipPoint.isEmpty()) {
+                return new TokenQuery(tokens, offset, new int[0]);
+            }
+            int[] skip = new int[skipPoint.size()];
+            int n = 0;
+            for (Integer point : skipPoint) {
+                if (point >= offset && point < tokens.length) {
+                    skip[n++] = point;
+                }
+            }
+            skip = Arrays.copyOf(skip, n);
+            Arrays.sort(skip);
+            return new TokenQuery(tokens, offset, skip);
+        }
+
+        /**
+         * Returns a key that does not share the caller's token array.
+         */
+        TokenQuery copy() {
+            int[] shifted = new int[skip.length];
+            for (int i = 0; i < skip.length; i++) {
+                shifted[i] = skip[i] - offset;
+            }
+            return new TokenQuery(Arrays.copyOfRange(tokens, offset, tokens.length), 0, shifted);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof TokenQuery)) {
+                return false;
+            }
+            TokenQuery other = (TokenQuery) o;
+            int length = tokens.length - offset;
+            if (hash != other.hash || length != other.tokens.length - other.offset
+                    || skip.length != other.skip.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (!tokens[offset + i].equals(other.tokens[other.offset + i])) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < skip.length; i++) {
+                if (skip[i] - offset != other.skip[i] - other.offset) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
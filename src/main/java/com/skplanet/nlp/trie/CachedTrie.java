@@ -0,0 +1,132 @@
+package com.skplanet.nlp.trie;
+
+/**
+ * Result cache in front of a {@link Trie}<br>
+ * Answers repeated <code>match</code>, <code>prefixMatch</code> and
+ * <code>matchRelaxed</code> queries from a bounded segmented LRU cache
+ * per operation instead of walking the trie again.  Misses are cached
+ * too.  Every <code>put</code>, <code>remove</code>, <code>replace</code>
+ * or adding <code>computeIfAbsent</code> on the trie invalidates the
+ * cached results; frozen tries never do.  Thread-safe as long as the trie
+ * is only read concurrently, which holds for frozen tries.
+ * <pre>
+ *     CachedTrie cached = new CachedTrie(trie.freeze(), 100000);
+ *     TrieData data = cached.matchRelaxed(input);
+ * </pre>
+ * Results are shared between callers and must not be modified.
+ */
+public class CachedTrie {
+    private final Trie trie;
+    private final ResultCache<String> matchCache;
+    private final ResultCache<String> prefixCache;
+    private final ResultCache<String> relaxedCache;
+
+    /**
+     * Constructor
+     *
+     * @param trie trie to be cached
+     * @param capacity largest number of results kept per operation
+     */
+    public CachedTrie(Trie trie, int capacity) {
+        this.trie = trie;
+        this.matchCache = new ResultCache<String>(capacity);
+        this.prefixCache = new ResultCache<String>(capacity);
+        this.relaxedCache = new ResultCache<String>(capacity);
+    }
+
+    /**
+     * Cached {@link Trie#match(String)}
+     */
+    public TrieData match(String input) {
+        int version = trie.modCount;
+        Object cached = matchCache.get(input, version);
+        if (cached == null) {
+            TrieData data = trie.match(input);
+            matchCache.put(input, data, version);
+            return data;
+        }
+        return cached == ResultCache.NONE ? null : (TrieData) cached;
+    }
+
+    /**
+     * Cached {@link Trie#prefixMatch(String)}
+     */
+    public TrieData prefixMatch(String input) {
+        int version = trie.modCount;
+        Object cached = prefixCache.get(input, version);
+        if (cached == null) {
+            TrieData data = trie.prefixMatch(input);
+            prefixCache.put(input, data, version);
+            return data;
+        }
+        return cached == ResultCache.NONE ? null : (TrieData) cached;
+    }
+
+    /**
+     * Cached {@link Trie#matchRelaxed(String)}
+     */
+    public TrieData matchRelaxed(String input) {
+        int version = trie.modCount;
+        Object cached = relaxedCache.get(input, version);
+        if (cached == null) {
+            TrieData data = trie.matchRelaxed(input);
+            relaxedCache.put(input, data, version);
+            return data;
+        }
+        return cached == ResultCache.NONE ? null : (TrieData) cached;
+    }
+
+    /**
+     * Returns the cached trie.
+     */
+    public Trie getTrie() {
+        return trie;
+    }
+
+    /**
+     * Returns the number of queries answered from the cache.
+     */
+    public long getHitCount() {
+        return matchCache.getHitCount() + prefixCache.getHitCount() + relaxedCache.getHitCount();
+    }
+
+    /**
+     * Returns the number of queries that had to walk the trie.
+     */
+    public long getMissCount() {
+        return matchCache.getMissCount() + prefixCache.getMissCount() + relaxedCache.getMissCount();
+    }
+
+    /**
+     * Returns the fraction of queries answered from the cache, 0 if none
+     * was asked yet.
+     */
+    public double getHitRate() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0 : hits / (double) total;
+    }
+
+    /**
+     * Returns the number of results dropped to make room for new ones.
+     */
+    public long getEvictionCount() {
+        return matchCache.getEvictionCount() + prefixCache.getEvictionCount() + relaxedCache.getEvictionCount();
+    }
+
+    /**
+     * Returns the number of results currently cached.
+     */
+    public int size() {
+        return matchCache.size() + prefixCache.size() + relaxedCache.size();
+    }
+
+    /**
+     * Drops all cached results.
+     */
+    public void clear() {
+        matchCache.clear();
+        prefixCache.clear();
+        relaxedCache.clear();
+    }
+}
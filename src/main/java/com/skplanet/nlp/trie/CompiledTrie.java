@@ -0,0 +1,286 @@
+package com.skplanet.nlp.trie;
+
+
+/**
+ * Read-only character trie compiled out of a {@link Trie}<br>
+ * Runs the very lookups of {@link Trie} on top of an abstract state
+ * machine, so every compiled representation shares exactly the same
+ * matching semantics.  A state is an opaque <code>long</code> defined by
+ * the representation, {@link #NO_STATE} meaning "no transition".<br>
+ * Compiled tries are immutable and can be shared between threads.
+ */
+public abstract class CompiledTrie {
+    protected static final long NO_STATE = -1L;
+
+    /**
+     * Returns the state for the empty input.
+     */
+    protected abstract long rootState();
+
+    /**
+     * Returns the state reached from <code>state</code> on <code>c</code>,
+     * or {@link #NO_STATE} if no pattern continues with <code>c</code>.
+     */
+    protected abstract long child(long state, char c);
+
+    /**
+     * Returns <code>true</code> if a pattern ends in <code>state</code>.
+     */
+    protected abstract boolean isTerminal(long state);
+
+    /**
+     * Returns data of the pattern ending in <code>state</code>.
+     */
+    protected abstract Object valueOf(long state);
+
+    /**
+     * Exact Match
+     *
+     * Returns data if the given <code>String</code> is matched by a
+     * pattern in the ds, otherwise return null.
+     */
+    public TrieData match(String input) {
+        MatchResult result = new MatchResult();
+        if (!match(input, result)) {
+            return null;
+        }
+        return result.toTrieData();
+    }
+
+    /**
+     * Exact Match without allocation
+     *
+     * Walks the whole input, skipping spaces, and reports the last pattern
+     * seen on the way if the whole input is a path in the ds.
+     *
+     * @param input input to be looked up
+     * @param result reusable result, filled in on match
+     * @return true if matched, otherwise false
+     */
+    public boolean match(CharSequence input, MatchResult result) {
+        return match(input, 0, input.length(), result);
+    }
+
+    /**
+     * Same as {@link #match(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of <code>input</code>.  Indexes
+     * of the result refer to <code>input</code>; a {@link java.nio.CharBuffer}
+     * is indexed from its position.
+     */
+    public boolean match(CharSequence input, int offset, int length, MatchResult result) {
+        return result.cursor.start(this).match(input, null, offset, length, result, null);
+    }
+
+    /**
+     * Same as {@link #match(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of a <code>char</code> buffer.
+     * Indexes of the result refer to <code>input</code>.
+     */
+    public boolean match(char[] input, int offset, int length, MatchResult result) {
+        return result.cursor.start(this).match(null, input, offset, length, result, null);
+    }
+
+    /**
+     * Prefix Trie match
+     * @param input String to be looked up
+     * @return End index of matching part, -1 if doesn't match at all
+     */
+    public TrieData prefixMatch(String input) {
+        MatchResult result = new MatchResult();
+        prefixMatch(input, result);
+        return result.toTrieData();
+    }
+
+    /**
+     * Prefix Trie match without allocation
+     *
+     * Follows the input as far as it is a path in the ds, skipping spaces.
+     * The end of the result is where the path stops, its value is the
+     * one of the last pattern seen on the way.
+     *
+     * @param input input to be looked up
+     * @param result reusable result
+     * @return true if a pattern was seen, otherwise false
+     */
+    public boolean prefixMatch(CharSequence input, MatchResult result) {
+        return prefixMatch(input, 0, input.length(), result);
+    }
+
+    /**
+     * Same as {@link #prefixMatch(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of <code>input</code>.  Indexes
+     * of the result refer to <code>input</code>; a {@link java.nio.CharBuffer}
+     * is indexed from its position.
+     */
+    public boolean prefixMatch(CharSequence input, int offset, int length, MatchResult result) {
+        return result.cursor.start(this).prefixMatch(input, null, offset, length, result, null);
+    }
+
+    /**
+     * Same as {@link #prefixMatch(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of a <code>char</code> buffer.
+     * Indexes of the result refer to <code>input</code>.
+     */
+    public boolean prefixMatch(char[] input, int offset, int length, MatchResult result) {
+        return result.cursor.start(this).prefixMatch(null, input, offset, length, result, null);
+    }
+
+    /**
+     * Relaxed Trie Match.
+     *
+     * Returns data if the given <code>String</code> is matched by a
+     * pattern in the ds, otherwise return null.
+     *
+     * @param input input string to be looked up
+     * @return data node
+     */
+    public TrieData matchRelaxed(String input) {
+        MatchResult result = new MatchResult();
+        matchRelaxed(input, result);
+        return result.toTrieData();
+    }
+
+    /**
+     * Relaxed Trie Match without allocation
+     *
+     * Like {@link #prefixMatch(CharSequence, MatchResult)}, but tolerates
+     * symbols of {@link Trie#SYMBOLS} missing from or added to the input.
+     *
+     * @param input input to be looked up
+     * @param result reusable result
+     * @return true if a pattern was seen, otherwise false
+     */
+    public boolean matchRelaxed(CharSequence input, MatchResult result) {
+        return matchRelaxed(input, 0, input.length(), result);
+    }
+
+    /**
+     * Same as {@link #matchRelaxed(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of <code>input</code>.  Indexes
+     * of the result refer to <code>input</code>; a {@link java.nio.CharBuffer}
+     * is indexed from its position.
+     */
+    public boolean matchRelaxed(CharSequence input, int offset, int length, MatchResult result) {
+        return result.cursor.start(this).matchRelaxed(input, null, offset, length, result, null);
+    }
+
+    /**
+     * Same as {@link #matchRelaxed(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of a <code>char</code> buffer.
+     * Indexes of the result refer to <code>input</code>.
+     */
+    public boolean matchRelaxed(char[] input, int offset, int length, MatchResult result) {
+        return result.cursor.start(this).matchRelaxed(null, input, offset, length, result, null);
+    }
+
+    /**
+     * Returns true if the given <code>String</code> is matched by a
+     * pattern in the ds, otherwise return false.
+     */
+    public boolean contains(String input) {
+        return new TrieCursor().start(this).contains(input, null, 0, input.length());
+    }
+
+    /**
+     * Same as {@link #contains(String)} on the range
+     * <code>[offset, offset + length)</code> of <code>input</code>.
+     */
+    public boolean contains(CharSequence input, int offset, int length) {
+        return new TrieCursor().start(this).contains(input, null, offset, length);
+    }
+
+    /**
+     * Same as {@link #contains(String)} on the range
+     * <code>[offset, offset + length)</code> of a <code>char</code> buffer.
+     */
+    public boolean contains(char[] input, int offset, int length) {
+        return new TrieCursor().start(this).contains(null, input, offset, length);
+    }
+
+    /**
+     * Returns the shortest substring of <code>input<code> that is
+     * matched by a pattern in the ds, or <code>null<code> if no match
+     * exists.
+     */
+    public TrieData shortestMatch(String input) {
+        MatchResult result = new MatchResult();
+        if (!shortestMatch(input, result)) {
+            return null;
+        }
+        return result.toTrieData();
+    }
+
+    /**
+     * Shortest Match without allocation
+     *
+     * @param input input to be looked up
+     * @param result reusable result, filled in on match
+     * @return true if a prefix of the input is a pattern, otherwise false
+     */
+    public boolean shortestMatch(CharSequence input, MatchResult result) {
+        return shortestMatch(input, 0, input.length(), result);
+    }
+
+    /**
+     * Same as {@link #shortestMatch(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of <code>input</code>.  Indexes
+     * of the result refer to <code>input</code>; a {@link java.nio.CharBuffer}
+     * is indexed from its position.
+     */
+    public boolean shortestMatch(CharSequence input, int offset, int length, MatchResult result) {
+        return result.cursor.start(this).shortestMatch(input, null, offset, length, result);
+    }
+
+    /**
+     * Same as {@link #shortestMatch(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of a <code>char</code> buffer.
+     * Indexes of the result refer to <code>input</code>.
+     */
+    public boolean shortestMatch(char[] input, int offset, int length, MatchResult result) {
+        return result.cursor.start(this).shortestMatch(null, input, offset, length, result);
+    }
+
+    /**
+     * Returns the longest substring of <code>input<code> that is
+     * matched by a pattern in the ds, or <code>null<code> if no match
+     * exists.
+     */
+    public TrieData longestMatch(String input) {
+        MatchResult result = new MatchResult();
+        longestMatch(input, result);
+        return result.toTrieData();
+    }
+
+    /**
+     * Longest Match without allocation
+     *
+     * The end of the result is where the path of the input stops, its
+     * value is the one of the longest pattern seen on the way.
+     *
+     * @param input input to be looked up
+     * @param result reusable result
+     * @return true if a prefix of the input is a pattern, otherwise false
+     */
+    public boolean longestMatch(CharSequence input, MatchResult result) {
+        return longestMatch(input, 0, input.length(), result);
+    }
+
+    /**
+     * Same as {@link #longestMatch(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of <code>input</code>.  Indexes
+     * of the result refer to <code>input</code>; a {@link java.nio.CharBuffer}
+     * is indexed from its position.
+     */
+    public boolean longestMatch(CharSequence input, int offset, int length, MatchResult result) {
+        return result.cursor.start(this).longestMatch(input, null, offset, length, result);
+    }
+
+    /**
+     * Same as {@link #longestMatch(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of a <code>char</code> buffer.
+     * Indexes of the result refer to <code>input</code>.
+     */
+    public boolean longestMatch(char[] input, int offset, int length, MatchResult result) {
+        return result.cursor.start(this).longestMatch(null, input, offset, length, result);
+    }
+}
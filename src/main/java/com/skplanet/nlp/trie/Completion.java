@@ -0,0 +1,43 @@
+package com.skplanet.nlp.trie;
+
+/**
+ * Result of {@link Trie#completions(String, int)}<br>
+ * A key of the trie starting with the prefix, its value and its weight.
+ */
+public final class Completion {
+    private final String key;
+    private final Object value;
+    private final float weight;
+
+    Completion(String key, Object value, float weight) {
+        this.key = key;
+        this.value = value;
+        this.weight = weight;
+    }
+
+    /**
+     * Returns the completed key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the value of the completed key.
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the weight the key was put with, 0 if it was put without one.
+     */
+    public float getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return key + "(" + weight + ")";
+    }
+}
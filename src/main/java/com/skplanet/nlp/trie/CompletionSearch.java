@@ -0,0 +1,84 @@
+package com.skplanet.nlp.trie;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Top-k search for the highest weighted keys under a node<br>
+ * Walks the subtree depth first in key order and keeps the best keys
+ * found so far in a bounded heap.  Once <code>k</code> keys are kept, a
+ * child is only entered if the highest weight of its subtree beats the
+ * worst weight kept, so branches holding only light keys are never walked.
+ */
+class CompletionSearch {
+    // heavier first, then key order
+    static final Comparator<Completion> ORDER = new Comparator<Completion>() {
+        public int compare(Completion a, Completion b) {
+            int c = Float.compare(b.getWeight(), a.getWeight());
+            if (c != 0) {
+                return c;
+            }
+            return a.getKey().compareTo(b.getKey());
+        }
+    };
+
+    private final int k;
+    private final int prefixLength;
+    private final PriorityQueue<Completion> best;
+    private char[] path;
+
+    CompletionSearch(String prefix, int k) {
+        this.k = k;
+        this.prefixLength = prefix.length();
+        this.best = new PriorityQueue<Completion>(Math.min(k, 64), Collections.reverseOrder(ORDER));
+        this.path = new char[prefix.length() + 16];
+        prefix.getChars(0, prefix.length(), path, 0);
+    }
+
+    /**
+     * Returns the heaviest keys at or below <code>node</code>, the node of
+     * the prefix, heaviest first.
+     */
+    List<Completion> run(AbstractTrie.TrieNode node) {
+        if (node.terminal) {
+            offer(prefixLength, node);
+        }
+        visit(node, prefixLength);
+        List<Completion> result = new ArrayList<Completion>(best);
+        Collections.sort(result, ORDER);
+        return result;
+    }
+
+    private void visit(AbstractTrie.TrieNode node, int depth) {
+        if (depth == path.length) {
+            char[] longer = new char[depth << 1];
+            System.arraycopy(path, 0, longer, 0, depth);
+            path = longer;
+        }
+        for (AbstractTrie.TrieNode child : AbstractTrie.childrenOf(node)) {
+            // keys are visited in ascending order, so a later key of the
+            // same weight as the worst one kept never replaces it
+            if (best.size() == k && child.best <= best.peek().getWeight()) {
+                continue;
+            }
+            path[depth] = child.nodeChar;
+            if (child.terminal) {
+                offer(depth + 1, child);
+            }
+            visit(child, depth + 1);
+        }
+    }
+
+    private void offer(int length, AbstractTrie.TrieNode node) {
+        if (best.size() == k && node.weight <= best.peek().getWeight()) {
+            return;
+        }
+        best.add(new Completion(new String(path, 0, length), node.data, node.weight));
+        if (best.size() > k) {
+            best.poll();
+        }
+    }
+}
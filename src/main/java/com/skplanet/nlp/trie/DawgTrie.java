@@ -0,0 +1,210 @@
+package com.skplanet.nlp.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal acyclic automaton (DAWG) compiled {@link Trie}<br>
+ * Merges every set of equivalent subtrees of the trie into one state, so
+ * common endings are stored once however many keys share them.  Values
+ * can not live in shared states; instead every key is numbered by its
+ * rank in sorted order and the rank is counted up along the path: each
+ * edge carries the number of keys that sort before the keys it leads to.
+ * A lookup state is therefore the pair (rank so far, automaton state),
+ * packed into a <code>long</code>.<br>
+ * Offers the same lookups as {@link Trie}; immutable and thread-safe.
+ */
+public class DawgTrie extends CompiledTrie {
+    // edges of state s are firstEdge[s] .. firstEdge[s + 1] - 1, sorted by character
+    private final int[] firstEdge;
+    private final char[] edgeChar;
+    private final int[] edgeTarget;
+    // rank added when taking the edge
+    private final int[] edgeSkip;
+    private final boolean[] terminal;
+    private final int root;
+    // values in key order
+    private final Object[] values;
+
+    /**
+     * Compiles the given trie.  The source trie is only read and can be
+     * dropped afterwards.
+     *
+     * @param trie trie to be compiled
+     */
+    public DawgTrie(AbstractTrie trie) {
+        Minimizer minimizer = new Minimizer();
+        this.root = minimizer.register(trie.root);
+        int states = minimizer.states;
+        this.firstEdge = Arrays.copyOf(minimizer.firstEdge, states + 1);
+        this.firstEdge[states] = minimizer.edges;
+        this.edgeChar = Arrays.copyOf(minimizer.edgeChar, minimizer.edges);
+        this.edgeTarget = Arrays.copyOf(minimizer.edgeTarget, minimizer.edges);
+        this.edgeSkip = Arrays.copyOf(minimizer.edgeSkip, minimizer.edges);
+        this.terminal = Arrays.copyOf(minimizer.terminal, states);
+
+        List<Object> ordered = new ArrayList<Object>(minimizer.count[root]);
+        collectValues(trie.root, ordered);
+        this.values = ordered.toArray();
+    }
+
+    /**
+     * Returns the number of patterns.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns the number of automaton states.
+     */
+    public int getStateCount() {
+        return terminal.length;
+    }
+
+    /**
+     * Returns the number of automaton edges.
+     */
+    public int getEdgeCount() {
+        return edgeChar.length;
+    }
+
+    @Override
+    protected long rootState() {
+        return root;
+    }
+
+    @Override
+    protected long child(long state, char c) {
+        int s = (int) state;
+        int min = firstEdge[s];
+        int max = firstEdge[s + 1] - 1;
+        while (min <= max) {
+            int mid = (min + max) >>> 1;
+            if (edgeChar[mid] < c)
+                min = mid + 1;
+            else if (edgeChar[mid] > c)
+                max = mid - 1;
+            else
+                return (((state >>> 32) + edgeSkip[mid]) << 32) | edgeTarget[mid];
+        }
+        return NO_STATE;
+    }
+
+    @Override
+    protected boolean isTerminal(long state) {
+        return terminal[(int) state];
+    }
+
+    @Override
+    protected Object valueOf(long state) {
+        return values[(int) (state >>> 32)];
+    }
+
+    /**
+     * Adds the values under <code>node</code> in key order.
+     */
+    private static void collectValues(AbstractTrie.TrieNode node, List<Object> values) {
+        if (node.terminal) {
+            values.add(node.data);
+        }
+        for (AbstractTrie.TrieNode child : AbstractTrie.childrenOf(node)) {
+            collectValues(child, values);
+        }
+    }
+
+    /**
+     * Registers the subtrees of a trie bottom-up, reusing the state of an
+     * equivalent subtree registered before.
+     */
+    private static class Minimizer {
+        private final Map<Signature, Integer> registry = new HashMap<Signature, Integer>();
+        int states = 0;
+        int edges = 0;
+        int[] firstEdge = new int[1024];
+        boolean[] terminal = new boolean[1024];
+        // number of keys accepted from each state
+        int[] count = new int[1024];
+        char[] edgeChar = new char[1024];
+        int[] edgeTarget = new int[1024];
+        int[] edgeSkip = new int[1024];
+
+        /**
+         * Returns the state of the subtree under <code>node</code>.
+         */
+        int register(AbstractTrie.TrieNode node) {
+            AbstractTrie.TrieNode[] children = AbstractTrie.childrenOf(node);
+            Signature signature = new Signature(node.terminal, children.length);
+            for (int i = 0; i < children.length; i++) {
+                signature.chars[i] = children[i].nodeChar;
+                signature.targets[i] = register(children[i]);
+            }
+            Integer known = registry.get(signature);
+            if (known != null) {
+                return known;
+            }
+
+            int state = states++;
+            if (state == terminal.length) {
+                int capacity = state + (state >> 1);
+                firstEdge = Arrays.copyOf(firstEdge, capacity + 1);
+                terminal = Arrays.copyOf(terminal, capacity);
+                count = Arrays.copyOf(count, capacity);
+            }
+            if (edges + children.length > edgeChar.length) {
+                int capacity = Math.max(edges + children.length, edgeChar.length + (edgeChar.length >> 1));
+                edgeChar = Arrays.copyOf(edgeChar, capacity);
+                edgeTarget = Arrays.copyOf(edgeTarget, capacity);
+                edgeSkip = Arrays.copyOf(edgeSkip, capacity);
+            }
+            terminal[state] = node.terminal;
+            firstEdge[state] = edges;
+            int skip = node.terminal ? 1 : 0;
+            for (int i = 0; i < children.length; i++) {
+                edgeChar[edges] = signature.chars[i];
+                edgeTarget[edges] = signature.targets[i];
+                edgeSkip[edges] = skip;
+                skip += count[signature.targets[i]];
+                edges++;
+            }
+            count[state] = skip;
+            registry.put(signature, state);
+            return state;
+        }
+    }
+
+    /**
+     * Right language of a state: whether it is terminal, and its labelled
+     * edges to already registered states.
+     */
+    private static class Signature {
+        final boolean terminal;
+        final char[] chars;
+        final int[] targets;
+
+        Signature(boolean terminal, int size) {
+            this.terminal = terminal;
+            this.chars = new char[size];
+            this.targets = new int[size];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Signature)) {
+                return false;
+            }
+            Signature other = (Signature) o;
+            return terminal == other.terminal
+                    && Arrays.equals(chars, other.chars)
+                    && Arrays.equals(targets, other.targets);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Arrays.hashCode(chars) + Arrays.hashCode(targets)) + (terminal ? 1 : 0);
+        }
+    }
+}
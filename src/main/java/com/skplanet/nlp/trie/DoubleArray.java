@@ -0,0 +1,309 @@
+package com.skplanet.nlp.trie;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Double-Array (DARTS style) transition table<br>
+ * A state is an index into <code>base</code>/<code>check</code>; the
+ * transition from <code>s</code> on code <code>c</code> leads to
+ * <code>t = base[s] + c</code> if <code>check[t] == s</code>.  Values are
+ * kept outside, addressed by a value index: a terminal leaf stores
+ * <code>-(value index) - 1</code> in its own base, while a terminal state
+ * with children gets an end-of-pattern transition on code 0 whose slot
+ * holds the encoded index in its base.
+ */
+final class DoubleArray {
+    static final int ROOT = 0;
+
+    final int[] base;
+    final int[] check;
+
+    DoubleArray(int[] base, int[] check) {
+        this.base = base;
+        this.check = check;
+    }
+
+    /**
+     * Returns the state reached from <code>state</code> on
+     * <code>code</code>, or -1.  <code>code</code> must be positive.
+     */
+    int child(int state, int code) {
+        int t = base[state] + code;
+        if (t > 0 && t < check.length && check[t] == state) {
+            return t;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the value stored in <code>state</code>, or -1
+     * if no pattern ends in it.
+     */
+    int valueIndex(int state) {
+        int t = base[state];
+        if (t < 0) {
+            return -t - 1;
+        }
+        if (t > 0 && t < check.length && check[t] == state) {
+            return -base[t] - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the state reached from the root on the characters
+     * <code>[offset, offset + length)</code> of <code>s</code>, character
+     * <code>c</code> being code <code>c + 1</code>, or -1.
+     */
+    int walk(CharSequence s, int offset, int length) {
+        int state = ROOT;
+        for (int i = offset; i < offset + length && state >= 0; i++) {
+            state = child(state, s.charAt(i) + 1);
+        }
+        return state;
+    }
+
+    /**
+     * Returns the state reached from the root on the token ids
+     * <code>[offset, offset + length)</code> of <code>ids</code>, id
+     * <code>i</code> being code <code>i + 1</code>, or -1.
+     */
+    int walk(int[] ids, int offset, int length) {
+        int state = ROOT;
+        for (int i = offset; i < offset + length && state >= 0; i++) {
+            state = ids[i] < 0 ? -1 : child(state, ids[i] + 1);
+        }
+        return state;
+    }
+
+    /**
+     * Returns the number of slots.
+     */
+    int size() {
+        return check.length;
+    }
+
+    /**
+     * Builds a {@link DoubleArray} out of any tree.  Children must be
+     * returned in ascending order of their codes, and codes must be
+     * positive.
+     *
+     * @param <N> node type of the source tree
+     */
+    abstract static class Builder<N> {
+        private static final int WINDOW = 4096;
+
+        private int[] base;
+        private int[] check;
+        // union-find over slots: nextFree[p] leads to the first free slot >= p
+        private int[] nextFree;
+        private int maxSlot;
+        private int frontier;
+        private final List<Object> values = new ArrayList<Object>();
+
+        abstract N[] children(N node);
+
+        abstract int code(N node);
+
+        abstract boolean isTerminal(N node);
+
+        abstract Object value(N node);
+
+        /**
+         * Returns the values in the order of their value indexes.
+         */
+        List<Object> values() {
+            return values;
+        }
+
+        /**
+         * Returns the values as <code>int</code>s.
+         *
+         * @throws IllegalArgumentException if a value is not an integral
+         * {@link Number} within the range of <code>int</code>
+         */
+        int[] intValues() {
+            int[] result = new int[values.size()];
+            for (int i = 0; i < result.length; i++) {
+                long value = integral(values.get(i));
+                if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("not an int: " + values.get(i));
+                }
+                result[i] = (int) value;
+            }
+            return result;
+        }
+
+        /**
+         * Returns the values as <code>long</code>s.
+         *
+         * @throws IllegalArgumentException if a value is not an integral
+         * {@link Number} within the range of <code>long</code>
+         */
+        long[] longValues() {
+            long[] result = new long[values.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = integral(values.get(i));
+            }
+            return result;
+        }
+
+        /**
+         * Returns <code>value</code> as a <code>long</code> if that loses
+         * nothing.  Floating point values are accepted if they are whole
+         * numbers; a {@link java.math.BigInteger} or
+         * {@link java.math.BigDecimal} must fit exactly.
+         */
+        private static long integral(Object value) {
+            if (value instanceof Long || value instanceof Integer
+                    || value instanceof Short || value instanceof Byte
+                    || value instanceof AtomicInteger || value instanceof AtomicLong) {
+                return ((Number) value).longValue();
+            }
+            if (value instanceof Double || value instanceof Float) {
+                double d = ((Number) value).doubleValue();
+                // the long range ends just below 2^63, which is exact as a double
+                if (d == Math.rint(d) && d >= -0x1p63 && d < 0x1p63) {
+                    return (long) d;
+                }
+            } else if (value instanceof BigInteger) {
+                BigInteger big = (BigInteger) value;
+                if (big.bitLength() < 64) {
+                    return big.longValue();
+                }
+            } else if (value instanceof BigDecimal) {
+                try {
+                    return ((BigDecimal) value).longValueExact();
+                } catch (ArithmeticException e) {
+                    // not integral or out of range
+                }
+            }
+            throw new IllegalArgumentException("not an integral number: " + value);
+        }
+
+        DoubleArray build(N root) {
+            base = new int[1024];
+            check = new int[1024];
+            nextFree = new int[1024];
+            Arrays.fill(check, -1);
+            for (int i = 0; i < nextFree.length; i++) {
+                nextFree[i] = i;
+            }
+            occupy(ROOT, ROOT);
+            maxSlot = ROOT;
+
+            List<N> nodes = new ArrayList<N>();
+            List<Integer> states = new ArrayList<Integer>();
+            nodes.add(root);
+            states.add(ROOT);
+            int[] codes = new int[16];
+            while (!nodes.isEmpty()) {
+                N node = nodes.remove(nodes.size() - 1);
+                int state = states.remove(states.size() - 1);
+                N[] children = children(node);
+                boolean terminal = isTerminal(node);
+                if (children.length == 0) {
+                    if (terminal) {
+                        base[state] = -values.size() - 1;
+                        values.add(value(node));
+                    }
+                    continue;
+                }
+                int n = children.length + (terminal ? 1 : 0);
+                if (codes.length < n) {
+                    codes = new int[n];
+                }
+                int k = 0;
+                if (terminal) {
+                    codes[k++] = 0;
+                }
+                for (N child : children) {
+                    codes[k++] = code(child);
+                }
+
+                int b = findBase(codes, n);
+                base[state] = b;
+                for (int i = 0; i < n; i++) {
+                    occupy(b + codes[i], state);
+                }
+                maxSlot = Math.max(maxSlot, b + codes[n - 1]);
+                if (terminal) {
+                    base[b] = -values.size() - 1;
+                    values.add(value(node));
+                }
+                for (N child : children) {
+                    nodes.add(child);
+                    states.add(b + code(child));
+                }
+            }
+            nextFree = null;
+            return new DoubleArray(Arrays.copyOf(base, maxSlot + 1), Arrays.copyOf(check, maxSlot + 1));
+        }
+
+        /**
+         * Returns the smallest positive base for which every slot
+         * <code>base + codes[i]</code> is still free.
+         */
+        private int findBase(int[] codes, int n) {
+            int first = codes[0];
+            int pos = firstFree(Math.max(first + 1, frontier - WINDOW));
+            while (true) {
+                int b = pos - first;
+                ensureCapacity(b + codes[n - 1] + 1);
+                int i = 1;
+                while (i < n && check[b + codes[i]] == -1) {
+                    i++;
+                }
+                if (i == n) {
+                    frontier = Math.max(frontier, pos);
+                    return b;
+                }
+                pos = firstFree(pos + 1);
+            }
+        }
+
+        private void occupy(int slot, int owner) {
+            check[slot] = owner;
+            nextFree[slot] = slot + 1;
+        }
+
+        /**
+         * Returns the first free slot at or after <code>pos</code>.
+         */
+        private int firstFree(int pos) {
+            ensureCapacity(pos + 1);
+            int root = pos;
+            while (nextFree[root] != root) {
+                root = nextFree[root];
+                ensureCapacity(root + 1);
+            }
+            while (nextFree[pos] != root) {
+                int next = nextFree[pos];
+                nextFree[pos] = root;
+                pos = next;
+            }
+            return root;
+        }
+
+        private void ensureCapacity(int size) {
+            if (size <= check.length) {
+                return;
+            }
+            int capacity = Math.max(size, check.length + (check.length >> 1));
+            int old = check.length;
+            base = Arrays.copyOf(base, capacity);
+            check = Arrays.copyOf(check, capacity);
+            nextFree = Arrays.copyOf(nextFree, capacity);
+            Arrays.fill(check, old, capacity, -1);
+            for (int i = old; i < capacity; i++) {
+                nextFree[i] = i;
+            }
+        }
+    }
+}
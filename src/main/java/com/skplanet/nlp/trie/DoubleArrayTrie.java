@@ -0,0 +1,94 @@
+package com.skplanet.nlp.trie;
+
+/**
+ * Double-Array compiled {@link Trie}<br>
+ * Keeps the whole trie in two <code>int</code> arrays plus one value
+ * array, instead of one object per character, and offers the same
+ * lookups as {@link Trie}.  Characters are renumbered by how many nodes
+ * carry them, see {@link Alphabet}.  Build it once from a populated trie:
+ * <pre>
+ *     DoubleArrayTrie compiled = new DoubleArrayTrie(trie);
+ * </pre>
+ */
+public class DoubleArrayTrie extends CompiledTrie {
+    private final Alphabet alphabet;
+    private final DoubleArray array;
+    private final Object[] values;
+
+    /**
+     * Compiles the given trie.  The source trie is only read and can be
+     * dropped afterwards.
+     *
+     * @param trie trie to be compiled
+     */
+    public DoubleArrayTrie(AbstractTrie trie) {
+        this.alphabet = Alphabet.of(trie.root);
+        DoubleArray.Builder<AbstractTrie.TrieNode> builder = new Alphabet.NodeBuilder(alphabet);
+        this.array = builder.build(trie.root);
+        this.values = builder.values().toArray();
+    }
+
+    /**
+     * Returns the number of patterns.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns the number of slots of the base/check arrays.
+     */
+    public int getArraySize() {
+        return array.size();
+    }
+
+    @Override
+    protected long rootState() {
+        return DoubleArray.ROOT;
+    }
+
+    @Override
+    protected long child(long state, char c) {
+        int code = alphabet.code(c);
+        if (code == 0) {
+            return NO_STATE;
+        }
+        return array.child((int) state, code);
+    }
+
+    @Override
+    protected boolean isTerminal(long state) {
+        return array.valueIndex((int) state) >= 0;
+    }
+
+    @Override
+    protected Object valueOf(long state) {
+        return values[array.valueIndex((int) state)];
+    }
+
+    /**
+     * Reads the node graph of an {@link AbstractTrie}, character
+     * <code>c</code> being code <code>c + 1</code>.
+     */
+    static class CharNodeBuilder extends DoubleArray.Builder<AbstractTrie.TrieNode> {
+        @Override
+        AbstractTrie.TrieNode[] children(AbstractTrie.TrieNode node) {
+            return AbstractTrie.childrenOf(node);
+        }
+
+        @Override
+        int code(AbstractTrie.TrieNode node) {
+            return node.nodeChar + 1;
+        }
+
+        @Override
+        boolean isTerminal(AbstractTrie.TrieNode node) {
+            return node.terminal;
+        }
+
+        @Override
+        Object value(AbstractTrie.TrieNode node) {
+            return node.data;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.skplanet.nlp.trie;
+
+/**
+ * Result of {@link Trie#fuzzyMatch(String, int, int)}<br>
+ * A key of the trie, its value and its edit distance to the query.
+ */
+public final class FuzzyMatch {
+    private final String key;
+    private final Object value;
+    private final int distance;
+
+    FuzzyMatch(String key, Object value, int distance) {
+        this.key = key;
+        this.value = value;
+        this.distance = distance;
+    }
+
+    /**
+     * Returns the matched key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the value of the matched key.
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the Levenshtein distance between the key and the query.
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    @Override
+    public String toString() {
+        return key + "(" + distance + ")";
+    }
+}
@@ -0,0 +1,128 @@
+package com.skplanet.nlp.trie;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Edit distance search over a character trie<br>
+ * Walks the trie depth first in key order and keeps one row of the
+ * Levenshtein table per depth: the row of a node is computed from the row
+ * of its parent, so every shared prefix is computed once, and only the
+ * band of cells within <code>maxEdits</code> of the diagonal is filled.  A branch is
+ * left as soon as the smallest entry of its row exceeds the bound, which
+ * is the allowed number of edits, or once <code>k</code> keys are found,
+ * one less than the worst distance kept.
+ */
+class FuzzySearch {
+    // closer first, then key order
+    static final Comparator<FuzzyMatch> ORDER = new Comparator<FuzzyMatch>() {
+        public int compare(FuzzyMatch a, FuzzyMatch b) {
+            if (a.getDistance() != b.getDistance()) {
+                return a.getDistance() - b.getDistance();
+            }
+            return a.getKey().compareTo(b.getKey());
+        }
+    };
+
+    private final String query;
+    private final int maxEdits;
+    private final int k;
+    // stands for any distance beyond maxEdits
+    private final int far;
+    private final PriorityQueue<FuzzyMatch> best;
+    private int[][] rows;
+    private char[] path;
+
+    FuzzySearch(String query, int maxEdits, int k) {
+        this.query = query;
+        this.maxEdits = maxEdits;
+        this.k = k;
+        this.far = maxEdits + 1;
+        this.best = new PriorityQueue<FuzzyMatch>(Math.min(k, 64), Collections.reverseOrder(ORDER));
+        int depth = query.length() + maxEdits + 1;
+        this.rows = new int[depth + 1][];
+        this.path = new char[depth];
+    }
+
+    /**
+     * Returns the closest keys under <code>root</code>, closest first.
+     */
+    List<FuzzyMatch> run(AbstractTrie.TrieNode root) {
+        int[] first = new int[query.length() + 1];
+        for (int j = 0; j < first.length; j++) {
+            first[j] = j;
+        }
+        rows[0] = first;
+        visit(root, 0);
+        List<FuzzyMatch> result = new ArrayList<FuzzyMatch>(best);
+        Collections.sort(result, ORDER);
+        return result;
+    }
+
+    private void visit(AbstractTrie.TrieNode node, int depth) {
+        int n = query.length();
+        int[] prev = rows[depth];
+        for (AbstractTrie.TrieNode child : AbstractTrie.childrenOf(node)) {
+            int[] row = rows[depth + 1];
+            if (row == null) {
+                row = new int[n + 1];
+                rows[depth + 1] = row;
+            }
+            char c = child.nodeChar;
+            // only cells within maxEdits of the diagonal can stay in bounds
+            int i = depth + 1;
+            int lo = Math.max(1, i - maxEdits);
+            int hi = Math.min(n, i + maxEdits);
+            row[0] = i <= maxEdits ? i : far;
+            if (lo > 1) {
+                row[lo - 1] = far;
+            }
+            int min = row[0];
+            for (int j = lo; j <= hi; j++) {
+                int cost = query.charAt(j - 1) == c ? 0 : 1;
+                int d = Math.min(Math.min(prev[j] + 1, row[j - 1] + 1), prev[j - 1] + cost);
+                row[j] = d;
+                if (d < min) {
+                    min = d;
+                }
+            }
+            if (hi < n) {
+                row[hi + 1] = far;
+            }
+            path[depth] = c;
+            // row[n] is current once the band reaches the last column: it is
+            // either computed, or the far cell left of the band, or row[0]
+            // for an empty query; a walk never gets more than one column
+            // past the band, since a row of far cells is not followed
+            if (child.terminal && hi == n && row[n] <= bound()) {
+                offer(depth + 1, child.data, row[n]);
+            }
+            // a deeper node is never closer than the best entry of its row
+            if (min <= bound() && depth + 1 < path.length) {
+                visit(child, depth + 1);
+            }
+        }
+    }
+
+    /**
+     * Returns the largest distance still worth keeping.  Keys are visited
+     * in ascending order, so once the queue is full a key at the same
+     * distance as the worst one kept would never replace it.
+     */
+    private int bound() {
+        if (best.size() < k) {
+            return maxEdits;
+        }
+        return best.peek().getDistance() - 1;
+    }
+
+    private void offer(int length, Object value, int distance) {
+        best.add(new FuzzyMatch(new String(path, 0, length), value, distance));
+        if (best.size() > k) {
+            best.poll();
+        }
+    }
+}
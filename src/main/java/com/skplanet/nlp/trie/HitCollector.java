@@ -0,0 +1,124 @@
+package com.skplanet.nlp.trie;
+
+import java.util.Arrays;
+
+/**
+ * Applies a {@link MatchPolicy} to the states an Aho-Corasick automaton
+ * goes through during one scan, and reports the resulting hits by the
+ * state their pattern ends in.  Uses memory bounded by the longest
+ * pattern, whatever the length of the scanned input.
+ */
+abstract class HitCollector {
+    private final int[] depth;
+    private final int[] out;
+    private final boolean[] terminal;
+    private final MatchPolicy policy;
+
+    // end of the last reported hit
+    private int lastEnd;
+
+    // LEFTMOST_LONGEST: longest hit end / state per start position, start % ring.length
+    private int[] ringEnd;
+    private int[] ringState;
+    // every start position below this one has been decided
+    private int decided;
+
+    /**
+     * @param depth pattern length per state
+     * @param out nearest terminal proper suffix per state, -1 if none
+     * @param terminal true for states a pattern ends in
+     * @param maxDepth length of the longest pattern
+     */
+    HitCollector(int[] depth, int[] out, boolean[] terminal, int maxDepth, MatchPolicy policy) {
+        this.depth = depth;
+        this.out = out;
+        this.terminal = terminal;
+        this.policy = policy;
+        if (policy == MatchPolicy.LEFTMOST_LONGEST) {
+            ringEnd = new int[Math.max(maxDepth, 1)];
+            ringState = new int[ringEnd.length];
+            Arrays.fill(ringEnd, -1);
+        }
+    }
+
+    /**
+     * Receives one hit.
+     *
+     * @param start start of the hit
+     * @param end end of the hit, exclusive
+     * @param state state the pattern of the hit ends in
+     * @return false to stop the scan
+     */
+    abstract boolean hit(int start, int end, int state);
+
+    /**
+     * Reports the hits ending at <code>end</code>, given the automaton is
+     * in <code>state</code> after reading position <code>end - 1</code>.
+     *
+     * @return false if the scan was stopped
+     */
+    boolean step(int state, int end) {
+        int h = terminal[state] ? state : out[state];
+        switch (policy) {
+            case OVERLAPPING:
+                for (; h > 0; h = out[h]) {
+                    if (!hit(end - depth[h], end, h)) {
+                        return false;
+                    }
+                }
+                return true;
+            case NON_OVERLAPPING:
+                for (; h > 0; h = out[h]) {
+                    if (end - depth[h] >= lastEnd) {
+                        lastEnd = end;
+                        return hit(end - depth[h], end, h);
+                    }
+                }
+                return true;
+            default:
+                // no hit ending here or later can start before end - ring.length
+                if (!decide(end - ringEnd.length)) {
+                    return false;
+                }
+                // later hits with the same start are longer, so just overwrite
+                for (; h > 0; h = out[h]) {
+                    int slot = (end - depth[h]) % ringEnd.length;
+                    ringEnd[slot] = end;
+                    ringState[slot] = h;
+                }
+                return true;
+        }
+    }
+
+    /**
+     * Reports the hits still pending at the end of an input of the given
+     * length.
+     */
+    void finish(int length) {
+        if (policy == MatchPolicy.LEFTMOST_LONGEST) {
+            decide(length);
+        }
+    }
+
+    /**
+     * Reports the leftmost longest hits of all start positions below
+     * <code>upTo</code>.
+     */
+    private boolean decide(int upTo) {
+        for (; decided < upTo; decided++) {
+            int slot = decided % ringEnd.length;
+            int end = ringEnd[slot];
+            if (end < 0) {
+                continue;
+            }
+            ringEnd[slot] = -1;
+            if (decided >= lastEnd) {
+                lastEnd = end;
+                if (!hit(decided, end, ringState[slot])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
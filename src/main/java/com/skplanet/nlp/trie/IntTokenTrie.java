@@ -0,0 +1,98 @@
+package com.skplanet.nlp.trie;
+
+/**
+ * Double-Array compiled {@link TokenTrie} with <code>int</code> values<br>
+ * Edges are token ids of a {@link TokenVocabulary}, like in
+ * {@link TokenIdTrie}, and values are kept in an <code>int[]</code>, so a
+ * lookup neither boxes nor casts.  Keys without a value give the missing
+ * value chosen at build time.
+ * <pre>
+ *     IntTokenTrie ids = new IntTokenTrie(tokenTrie, -1);
+ *     int id = ids.getInt(new String[]{"new", "york"});
+ * </pre>
+ */
+public class IntTokenTrie {
+    private final TokenVocabulary vocabulary;
+    private final DoubleArray array;
+    private final int[] values;
+    private final int missing;
+
+    /**
+     * Compiles the given token trie, whose values must all be
+     * {@link Number}s, with a vocabulary of its own.
+     *
+     * @param trie token trie to be compiled
+     * @param missing value returned for keys not in the trie
+     * @throws IllegalArgumentException if a value is not a whole {@link Number}
+     * within the range of <code>int</code>
+     */
+    public IntTokenTrie(AbstractTokenTrie trie, int missing) {
+        this(trie, new TokenVocabulary(), missing);
+    }
+
+    /**
+     * Compiles the given token trie against a shared vocabulary.
+     *
+     * @param trie token trie to be compiled
+     * @param vocabulary vocabulary used to encode queries
+     * @param missing value returned for keys not in the trie
+     * @throws IllegalArgumentException if a value is not a whole {@link Number}
+     * within the range of <code>int</code>
+     */
+    public IntTokenTrie(AbstractTokenTrie trie, TokenVocabulary vocabulary, int missing) {
+        this.vocabulary = vocabulary;
+        TokenIdTrie.IdNodeBuilder builder = new TokenIdTrie.IdNodeBuilder(trie, vocabulary);
+        this.array = builder.build(trie.root);
+        this.values = builder.intValues();
+        this.missing = missing;
+    }
+
+    /**
+     * Returns the vocabulary the ids of this trie belong to.
+     */
+    public TokenVocabulary getVocabulary() {
+        return vocabulary;
+    }
+
+    /**
+     * Returns the number of patterns.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns the value returned for keys not in the trie.
+     */
+    public int getMissingValue() {
+        return missing;
+    }
+
+    /**
+     * Returns the value of the given key tokens, or the missing value.
+     */
+    public int getInt(String[] key) {
+        int state = DoubleArray.ROOT;
+        for (int i = 0; i < key.length && state >= 0; i++) {
+            int id = vocabulary.id(key[i]);
+            state = id < 0 ? -1 : array.child(state, id + 1);
+        }
+        return valueOf(state);
+    }
+
+    /**
+     * Returns the value of the key ids <code>[offset, offset + length)</code>
+     * of <code>ids</code>, or the missing value.
+     */
+    public int getInt(int[] ids, int offset, int length) {
+        return valueOf(array.walk(ids, offset, length));
+    }
+
+    private int valueOf(int state) {
+        if (state < 0) {
+            return missing;
+        }
+        int index = array.valueIndex(state);
+        return index < 0 ? missing : values[index];
+    }
+}
@@ -0,0 +1,95 @@
+package com.skplanet.nlp.trie;
+
+/**
+ * Double-Array compiled {@link Trie} with <code>int</code> values<br>
+ * Keeps the values in an <code>int[]</code> indexed like the values of
+ * {@link DoubleArrayTrie}, so a lookup neither boxes nor casts.  Keys
+ * without a value give the missing value chosen at build time.  The
+ * lookups of {@link Trie} are offered as well and box the value.
+ * <pre>
+ *     IntTrie tags = new IntTrie(trie, -1);
+ *     int tag = tags.getInt("key");
+ * </pre>
+ */
+public class IntTrie extends CompiledTrie {
+    private final DoubleArray array;
+    private final int[] values;
+    private final int missing;
+
+    /**
+     * Compiles the given trie, whose values must all be {@link Number}s.
+     *
+     * @param trie trie to be compiled
+     * @param missing value returned for keys not in the trie
+     * @throws IllegalArgumentException if a value is not a whole {@link Number}
+     * within the range of <code>int</code>
+     */
+    public IntTrie(AbstractTrie trie, int missing) {
+        DoubleArray.Builder<AbstractTrie.TrieNode> builder = new DoubleArrayTrie.CharNodeBuilder();
+        this.array = builder.build(trie.root);
+        this.values = builder.intValues();
+        this.missing = missing;
+    }
+
+    /**
+     * Returns the number of patterns.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns the value returned for keys not in the trie.
+     */
+    public int getMissingValue() {
+        return missing;
+    }
+
+    /**
+     * Returns the value of the given key, or the missing value.
+     */
+    public int getInt(CharSequence key) {
+        return getInt(key, 0, key.length());
+    }
+
+    /**
+     * Returns the value of the key <code>[offset, offset + length)</code>
+     * of <code>input</code>, or the missing value.
+     */
+    public int getInt(CharSequence input, int offset, int length) {
+        int state = array.walk(input, offset, length);
+        if (state < 0) {
+            return missing;
+        }
+        int index = array.valueIndex(state);
+        return index < 0 ? missing : values[index];
+    }
+
+    /**
+     * Returns true if the given key has a value.
+     */
+    public boolean containsKey(CharSequence key) {
+        int state = array.walk(key, 0, key.length());
+        return state >= 0 && array.valueIndex(state) >= 0;
+    }
+
+    @Override
+    protected long rootState() {
+        return DoubleArray.ROOT;
+    }
+
+    @Override
+    protected long child(long state, char c) {
+        return array.child((int) state, c + 1);
+    }
+
+    @Override
+    protected boolean isTerminal(long state) {
+        return array.valueIndex((int) state) >= 0;
+    }
+
+    @Override
+    protected Object valueOf(long state) {
+        return values[array.valueIndex((int) state)];
+    }
+}
@@ -0,0 +1,95 @@
+package com.skplanet.nlp.trie;
+
+/**
+ * Double-Array compiled {@link Trie} with <code>long</code> values<br>
+ * Keeps the values in a <code>long[]</code> indexed like the values of
+ * {@link DoubleArrayTrie}, so a lookup neither boxes nor casts.  Keys
+ * without a value give the missing value chosen at build time.  The
+ * lookups of {@link Trie} are offered as well and box the value.
+ * <pre>
+ *     LongTrie tags = new LongTrie(trie, -1);
+ *     long tag = tags.getLong("key");
+ * </pre>
+ */
+public class LongTrie extends CompiledTrie {
+    private final DoubleArray array;
+    private final long[] values;
+    private final long missing;
+
+    /**
+     * Compiles the given trie, whose values must all be {@link Number}s.
+     *
+     * @param trie trie to be compiled
+     * @param missing value returned for keys not in the trie
+     * @throws IllegalArgumentException if a value is not a whole {@link Number}
+     * within the range of <code>long</code>
+     */
+    public LongTrie(AbstractTrie trie, long missing) {
+        DoubleArray.Builder<AbstractTrie.TrieNode> builder = new DoubleArrayTrie.CharNodeBuilder();
+        this.array = builder.build(trie.root);
+        this.values = builder.longValues();
+        this.missing = missing;
+    }
+
+    /**
+     * Returns the number of patterns.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns the value returned for keys not in the trie.
+     */
+    public long getMissingValue() {
+        return missing;
+    }
+
+    /**
+     * Returns the value of the given key, or the missing value.
+     */
+    public long getLong(CharSequence key) {
+        return getLong(key, 0, key.length());
+    }
+
+    /**
+     * Returns the value of the key <code>[offset, offset + length)</code>
+     * of <code>input</code>, or the missing value.
+     */
+    public long getLong(CharSequence input, int offset, int length) {
+        int state = array.walk(input, offset, length);
+        if (state < 0) {
+            return missing;
+        }
+        int index = array.valueIndex(state);
+        return index < 0 ? missing : values[index];
+    }
+
+    /**
+     * Returns true if the given key has a value.
+     */
+    public boolean containsKey(CharSequence key) {
+        int state = array.walk(key, 0, key.length());
+        return state >= 0 && array.valueIndex(state) >= 0;
+    }
+
+    @Override
+    protected long rootState() {
+        return DoubleArray.ROOT;
+    }
+
+    @Override
+    protected long child(long state, char c) {
+        return array.child((int) state, c + 1);
+    }
+
+    @Override
+    protected boolean isTerminal(long state) {
+        return array.valueIndex((int) state) >= 0;
+    }
+
+    @Override
+    protected Object valueOf(long state) {
+        return values[array.valueIndex((int) state)];
+    }
+}
@@ -0,0 +1,265 @@
+package com.skplanet.nlp.trie;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Memory-mapped {@link TokenTrie}<br>
+ * Runs the lookups of {@link TokenTrie} directly against a binary trie
+ * file written by {@link TrieWriter#write(AbstractTokenTrie, File)}.
+ * Tokens are resolved by a binary search over the mapped vocabulary.
+ * Values are decoded on their first hit.  Thread-safe.
+ */
+public class MappedTokenTrie {
+    private final TrieFile file;
+
+    private MappedTokenTrie(TrieFile file) {
+        this.file = file;
+    }
+
+    /**
+     * Maps the given token trie file.
+     *
+     * @param file binary trie file
+     * @return mapped trie
+     * @throws IOException if the file can not be read or is not a token trie file
+     */
+    public static MappedTokenTrie open(File file) throws IOException {
+        return new MappedTokenTrie(TrieFile.map(file, TrieWriter.TYPE_TOKEN));
+    }
+
+    /**
+     * Returns the number of patterns.
+     */
+    public int size() {
+        return file.size();
+    }
+
+    /**
+     * Exact Match
+     *
+     * @param input query tokens
+     * @return matched object
+     * @see TokenTrie#match(String[])
+     */
+    public Object match(String[] input) {
+        return match(input, 0);
+    }
+
+    /**
+     * Exact Match with starting offset
+     *
+     * @param input query tokens
+     * @param offset start index
+     * @return matched object
+     * @see TokenTrie#match(String[], int)
+     */
+    public Object match(String[] input, int offset) {
+        int state = DoubleArray.ROOT;
+        int result = -1;
+        for (int i = offset; i < input.length; i++) {
+            state = child(state, input[i]);
+            if (state < 0) {
+                return null;
+            }
+            int index = file.valueIndex(state);
+            if (index >= 0) {
+                result = index;
+            }
+        }
+        return result < 0 ? null : file.value(result);
+    }
+
+    /**
+     * Exact Match skipping the tokens at the given indices
+     *
+     * @param input query tokens
+     * @param skipPoint skip index
+     * @return matched object
+     * @see TokenTrie#RelaxedMatch(String[], Set)
+     */
+    public Object RelaxedMatch(String[] input, Set<Integer> skipPoint) {
+        int state = DoubleArray.ROOT;
+        int result = -1;
+        for (int i = 0; i < input.length; i++) {
+            if (skipPoint.contains(i)) {
+                continue;
+            }
+            state = child(state, input[i]);
+            if (state < 0) {
+                return null;
+            }
+            int index = file.valueIndex(state);
+            if (index >= 0) {
+                result = index;
+            }
+        }
+        return result < 0 ? null : file.value(result);
+    }
+
+    /**
+     * Relaxed Match with starting offset<br>
+     * Returns data of the last pattern passed before a token without a
+     * transition, like {@link TokenTrie#RelaxedMatch(String[], int, Set)}.
+     *
+     * @param input query tokens
+     * @param offset start index
+     * @param skipPoint skip index
+     * @return matched object
+     */
+    public Object RelaxedMatch(String[] input, int offset, Set<Integer> skipPoint) {
+        int state = DoubleArray.ROOT;
+        int result = -1;
+        for (int i = offset; i < input.length; i++) {
+            if (skipPoint.contains(i)) {
+                continue;
+            }
+            state = child(state, input[i]);
+            if (state < 0) {
+                break;
+            }
+            int index = file.valueIndex(state);
+            if (index >= 0) {
+                result = index;
+            }
+        }
+        return result < 0 ? null : file.value(result);
+    }
+
+    /**
+     * Prefix Token Trie Match
+     *
+     * @param input String to be looked up.
+     * @return end index of matching part
+     */
+    public int prefixMatch(String[] input) {
+        return prefixMatch(input, 0);
+    }
+
+    /**
+     * Prefix Token Trie Match with starting offset
+     *
+     * @param input input string to be looked up.
+     * @param offset start index
+     * @return end index of matching part
+     */
+    public int prefixMatch(String[] input, int offset) {
+        int state = DoubleArray.ROOT;
+        int i = offset;
+        while (i < input.length) {
+            state = child(state, input[i]);
+            if (state < 0) {
+                return i;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Prefix Token Trie Match with starting offset, skipping the tokens at
+     * the given indices
+     *
+     * @param input input string to be looked up.
+     * @param offset start index
+     * @param skipPoint skip index
+     * @return end index of matching part
+     * @see TokenTrie#prefixRelaxedMatch(String[], int, Set)
+     */
+    public int prefixRelaxedMatch(String[] input, int offset, Set<Integer> skipPoint) {
+        int state = DoubleArray.ROOT;
+        int i = offset;
+        while (i < input.length) {
+            if (skipPoint.contains(i)) {
+                i++;
+                continue;
+            }
+            state = child(state, input[i]);
+            if (state < 0) {
+                return i;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns true if the given tokens are a path in the ds, otherwise
+     * return false.
+     *
+     * @see TokenTrie#contains(String[])
+     */
+    public boolean contains(String[] input) {
+        return prefixMatch(input, 0) == input.length;
+    }
+
+    /**
+     * @see TokenTrie#shortestMatch(String[])
+     */
+    public Object shortestMatch(String[] input) {
+        return shortestMatch(input, 0);
+    }
+
+    /**
+     * Returns data of the shortest pattern the tokens from
+     * <code>offset</code> on start with, otherwise return null.
+     *
+     * @see TokenTrie#shortestMatch(String[], int)
+     */
+    public Object shortestMatch(String[] input, int offset) {
+        int state = DoubleArray.ROOT;
+        for (int i = offset; i < input.length; i++) {
+            state = child(state, input[i]);
+            if (state < 0) {
+                return null;
+            }
+            int index = file.valueIndex(state);
+            if (index >= 0) {
+                return file.value(index);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @see TokenTrie#longestMatch(String[])
+     */
+    public Object longestMatch(String[] input) {
+        return longestMatch(input, 0);
+    }
+
+    /**
+     * Returns data of the longest pattern the tokens from
+     * <code>offset</code> on start with, otherwise return null.
+     *
+     * @see TokenTrie#longestMatch(String[], int)
+     */
+    public Object longestMatch(String[] input, int offset) {
+        int state = DoubleArray.ROOT;
+        int result = -1;
+        for (int i = offset; i < input.length; i++) {
+            state = child(state, input[i]);
+            if (state < 0) {
+                break;
+            }
+            int index = file.valueIndex(state);
+            if (index >= 0) {
+                result = index;
+            }
+        }
+        return result < 0 ? null : file.value(result);
+    }
+
+    private int child(int state, String token) {
+        // no pattern contains a null token, as in TokenTrie
+        if (token == null) {
+            return -1;
+        }
+        int id = file.tokenId(token);
+        if (id < 0) {
+            return -1;
+        }
+        return file.child(state, id + 1);
+    }
+}
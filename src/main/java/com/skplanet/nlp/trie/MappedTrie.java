@@ -0,0 +1,66 @@
+package com.skplanet.nlp.trie;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Memory-mapped {@link Trie}<br>
+ * Runs the lookups of {@link Trie} directly against a binary trie file
+ * written by {@link TrieWriter#write(AbstractTrie, File)}, without building
+ * any node objects.  Opening is close to instant and JVMs on the same host
+ * share the file through the page cache.  Values are decoded on their first hit.
+ * <pre>
+ *     TrieWriter.write(trie, file);
+ *     ...
+ *     MappedTrie mapped = MappedTrie.open(file);
+ * </pre>
+ */
+public class MappedTrie extends CompiledTrie {
+    private final TrieFile file;
+
+    private MappedTrie(TrieFile file) {
+        this.file = file;
+    }
+
+    /**
+     * Maps the given trie file.
+     *
+     * @param file binary trie file
+     * @return mapped trie
+     * @throws IOException if the file can not be read or is not a trie file
+     */
+    public static MappedTrie open(File file) throws IOException {
+        return new MappedTrie(TrieFile.map(file, TrieWriter.TYPE_CHAR));
+    }
+
+    /**
+     * Returns the number of patterns.
+     */
+    public int size() {
+        return file.size();
+    }
+
+    @Override
+    protected long rootState() {
+        return DoubleArray.ROOT;
+    }
+
+    @Override
+    protected long child(long state, char c) {
+        int code = file.code(c);
+        if (code == 0) {
+            return NO_STATE;
+        }
+        return file.child((int) state, code);
+    }
+
+    @Override
+    protected boolean isTerminal(long state) {
+        return file.valueIndex((int) state) >= 0;
+    }
+
+    @Override
+    protected Object valueOf(long state) {
+        return file.value(file.valueIndex((int) state));
+    }
+}
@@ -0,0 +1,16 @@
+package com.skplanet.nlp.trie;
+
+/**
+ * Receives the hits of a multi-pattern scan
+ */
+public interface MatchHandler {
+    /**
+     * Called for every hit of the scan.
+     *
+     * @param start index of the first character (or token) of the hit
+     * @param end index after the last character (or token) of the hit
+     * @param value data of the matched pattern
+     * @return false to stop the scan, otherwise true
+     */
+    boolean onMatch(int start, int end, Object value);
+}
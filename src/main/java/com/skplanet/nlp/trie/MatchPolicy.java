@@ -0,0 +1,25 @@
+package com.skplanet.nlp.trie;
+
+/**
+ * Result policy of a multi-pattern scan
+ */
+public enum MatchPolicy {
+    /**
+     * Report every hit, including hits nested in or overlapping with
+     * other hits.
+     */
+    OVERLAPPING,
+
+    /**
+     * Report the hit that starts leftmost, the longest one if several
+     * start there, then continue after its end.
+     */
+    LEFTMOST_LONGEST,
+
+    /**
+     * Report hits in the order they end, skipping hits that overlap an
+     * already reported one.  Of the hits ending at the same position
+     * the longest one is taken.
+     */
+    NON_OVERLAPPING
+}
@@ -0,0 +1,95 @@
+package com.skplanet.nlp.trie;
+
+/**
+ * Reusable Trie Match Result<br>
+ * Filled in by the <code>match(..., MatchResult)</code> family of lookups
+ * instead of allocating a {@link TrieData}.  Holds the matched range of
+ * the input and the value; the key is only cut out of the input when
+ * {@link #getKey()} is called.  Not thread-safe, keep one per thread.
+ */
+public final class MatchResult {
+    private CharSequence input = null;
+    private char[] chars = null;
+    private int start = 0;
+    private int end = -1;
+    private Object value = null;
+    // walk state of the lookups, reused so that they allocate nothing
+    final TrieCursor cursor = new TrieCursor();
+
+    /**
+     * Clears the result before a lookup on <code>input</code>.
+     */
+    void reset(CharSequence input, int start) {
+        reset(input, null, start);
+    }
+
+    /**
+     * Clears the result before a lookup on <code>chars</code>, or on
+     * <code>input</code> if <code>chars</code> is null.
+     */
+    void reset(CharSequence input, char[] chars, int start) {
+        this.input = input;
+        this.chars = chars;
+        this.start = start;
+        this.end = -1;
+        this.value = null;
+    }
+
+    void setEnd(int end) {
+        this.end = end;
+    }
+
+    void setValue(Object value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns the index of the first matched character.
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the index after the last matched character, -1 if nothing
+     * was matched.
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns the value of the matched pattern, null if none.
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the matched part of the input, null if nothing was matched.
+     * Creates a new <code>String</code> on every call.
+     */
+    public String getKey() {
+        if (end < 0) {
+            return null;
+        }
+        if (chars != null) {
+            return new String(chars, start, end - start);
+        }
+        return input.subSequence(start, end).toString();
+    }
+
+    /**
+     * Returns the result as {@link TrieData}, whose length is the index of
+     * the last matched character.
+     */
+    public TrieData toTrieData() {
+        TrieData data = new TrieData();
+        if (end >= 0) {
+            data.setKey(getKey());
+            data.setLength(end - 1);
+        }
+        data.setValue(value);
+        return data;
+    }
+}
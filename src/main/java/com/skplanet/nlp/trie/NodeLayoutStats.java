@@ -0,0 +1,76 @@
+package com.skplanet.nlp.trie;
+
+/**
+ * Distribution of child dispatch layouts over the nodes of a trie<br>
+ * Layouts are chosen per node by fan-out when a trie is frozen or built
+ * by {@link TrieBuilder}; nodes of a trie filled by <code>put()</code>
+ * binary search their children.
+ * <pre>
+ *     System.out.println(trie.freeze().getNodeLayoutStats());
+ * </pre>
+ */
+public class NodeLayoutStats {
+    private static final String[] NAMES = {"binary", "single", "linear", "hash", "direct", "leaf"};
+    private static final int LEAF = NAMES.length - 1;
+
+    private final int[] nodes = new int[NAMES.length];
+    private final long[] children = new long[NAMES.length];
+    private int maxFanOut = 0;
+
+    void add(byte layout, int fanOut) {
+        int i = fanOut == 0 ? LEAF : layout;
+        nodes[i]++;
+        children[i] += fanOut;
+        maxFanOut = Math.max(maxFanOut, fanOut);
+    }
+
+    /**
+     * Returns the number of nodes.
+     */
+    public int getNodeCount() {
+        int count = 0;
+        for (int n : nodes) {
+            count += n;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of nodes with the given layout, one of
+     * <code>binary</code>, <code>single</code>, <code>linear</code>,
+     * <code>hash</code> and <code>direct</code>, or of childless nodes
+     * for <code>leaf</code>; 0 for other names.
+     */
+    public int getNodeCount(String layout) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(layout)) {
+                return nodes[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the largest number of children of a node.
+     */
+    public int getMaxFanOut() {
+        return maxFanOut;
+    }
+
+    /**
+     * Returns one line per layout: node count, share of all nodes and
+     * average fan-out.
+     */
+    @Override
+    public String toString() {
+        int total = getNodeCount();
+        StringBuilder sb = new StringBuilder();
+        sb.append("nodes: ").append(total).append(", max fan-out: ").append(maxFanOut).append('\n');
+        for (int i = 0; i < NAMES.length; i++) {
+            sb.append(String.format("%-7s %10d %6.2f%% %10.2f%n", NAMES[i], nodes[i],
+                    total == 0 ? 0.0 : 100.0 * nodes[i] / total,
+                    nodes[i] == 0 ? 0.0 : (double) children[i] / nodes[i]));
+        }
+        return sb.toString();
+    }
+}
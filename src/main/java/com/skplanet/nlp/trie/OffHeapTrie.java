@@ -0,0 +1,119 @@
+package com.skplanet.nlp.trie;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Off-heap compiled {@link Trie}<br>
+ * Keeps the transition table of a {@link DoubleArrayTrie} in a direct
+ * buffer outside the Java heap, so the garbage collector neither copies
+ * nor traces it however large the dictionary is; on the heap remain only
+ * this handle, the {@link Alphabet} and one array of the values.
+ * Characters are coded exactly as in {@link DoubleArrayTrie}, so both
+ * build the same double array.  The base and check entries of
+ * a slot are stored next to each other, so a transition reads one cache
+ * line.  The buffer is released once the handle is collected; size
+ * <code>-XX:MaxDirectMemorySize</code> for the largest dictionary loaded.
+ * <pre>
+ *     OffHeapTrie compiled = new OffHeapTrie(trie);
+ * </pre>
+ */
+public class OffHeapTrie extends CompiledTrie {
+    private final Alphabet alphabet;
+    // slot s: base at 2 * s, check at 2 * s + 1
+    private final IntBuffer table;
+    private final int slots;
+    private final Object[] values;
+
+    /**
+     * Compiles the given trie.  The source trie is only read and can be
+     * dropped afterwards.
+     *
+     * @param trie trie to be compiled
+     * @throws IllegalArgumentException if the table does not fit into one
+     * direct buffer of 2GB
+     */
+    public OffHeapTrie(AbstractTrie trie) {
+        this.alphabet = Alphabet.of(trie.root);
+        DoubleArray.Builder<AbstractTrie.TrieNode> builder = new Alphabet.NodeBuilder(alphabet);
+        DoubleArray array = builder.build(trie.root);
+        this.values = builder.values().toArray();
+        this.slots = array.size();
+        if (slots > Integer.MAX_VALUE / 8) {
+            throw new IllegalArgumentException("too many slots for one buffer: " + slots);
+        }
+        this.table = ByteBuffer.allocateDirect(slots * 8).order(ByteOrder.nativeOrder()).asIntBuffer();
+        for (int s = 0; s < slots; s++) {
+            table.put(s << 1, array.base[s]);
+            table.put((s << 1) + 1, array.check[s]);
+        }
+    }
+
+    /**
+     * Returns the number of patterns.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns the number of slots of the transition table.
+     */
+    public int getArraySize() {
+        return slots;
+    }
+
+    /**
+     * Returns the number of bytes held outside the heap.
+     */
+    public long getOffHeapBytes() {
+        return slots * 8L;
+    }
+
+    @Override
+    protected long rootState() {
+        return DoubleArray.ROOT;
+    }
+
+    /**
+     * @see DoubleArray#child(int, int)
+     */
+    @Override
+    protected long child(long state, char c) {
+        int code = alphabet.code(c);
+        if (code == 0) {
+            return NO_STATE;
+        }
+        int s = (int) state;
+        int t = table.get(s << 1) + code;
+        if (t > 0 && t < slots && table.get((t << 1) + 1) == s) {
+            return t;
+        }
+        return NO_STATE;
+    }
+
+    @Override
+    protected boolean isTerminal(long state) {
+        return valueIndex((int) state) >= 0;
+    }
+
+    @Override
+    protected Object valueOf(long state) {
+        return values[valueIndex((int) state)];
+    }
+
+    /**
+     * @see DoubleArray#valueIndex(int)
+     */
+    private int valueIndex(int state) {
+        int t = table.get(state << 1);
+        if (t < 0) {
+            return -t - 1;
+        }
+        if (t > 0 && t < slots && table.get((t << 1) + 1) == state) {
+            return -table.get(t << 1) - 1;
+        }
+        return -1;
+    }
+}
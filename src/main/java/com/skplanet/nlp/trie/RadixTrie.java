@@ -0,0 +1,212 @@
+package com.skplanet.nlp.trie;
+
+import java.util.Arrays;
+
+/**
+ * Path compressed (radix) compiled {@link Trie}<br>
+ * Every chain of nodes that neither end a pattern nor branch is merged
+ * into a single edge labelled with the characters of the chain, so long
+ * keys sharing few prefixes, like product names or URLs, need one node
+ * per branch instead of one per character.  The labels of all edges are
+ * kept in one <code>char</code> array, so following an edge is a scan
+ * over consecutive characters rather than a pointer hop per character.
+ * A lookup state is either a node, or an edge together with the number of
+ * its characters matched so far, packed into a <code>long</code>.<br>
+ * Offers the same lookups as {@link Trie}; immutable and thread-safe.
+ * <pre>
+ *     RadixTrie compiled = new RadixTrie(trie);
+ * </pre>
+ */
+public class RadixTrie extends CompiledTrie {
+    // edges of node n are firstEdge[n] .. firstEdge[n + 1] - 1, sorted by first character
+    private final int[] firstEdge;
+    private final char[] edgeChar;
+    private final int[] edgeTarget;
+    // label of edge e is labels[labelStart[e]] .. labels[labelStart[e + 1] - 1]
+    private final int[] labelStart;
+    private final char[] labels;
+    // value of the pattern ending in each node, null if none
+    private final Object[] values;
+    private final int size;
+
+    /**
+     * Compiles the given trie.  The source trie is only read and can be
+     * dropped afterwards.
+     *
+     * @param trie trie to be compiled
+     */
+    public RadixTrie(AbstractTrie trie) {
+        Compressor compressor = new Compressor();
+        compressor.register(trie.root);
+        int nodes = compressor.nodes;
+        int edges = compressor.edges;
+        this.firstEdge = Arrays.copyOf(compressor.firstEdge, nodes + 1);
+        this.firstEdge[nodes] = edges;
+        this.edgeChar = Arrays.copyOf(compressor.edgeChar, edges);
+        this.edgeTarget = Arrays.copyOf(compressor.edgeTarget, edges);
+        this.labelStart = Arrays.copyOf(compressor.labelStart, edges + 1);
+        this.labelStart[edges] = compressor.length;
+        this.labels = Arrays.copyOf(compressor.labels, compressor.length);
+        this.values = Arrays.copyOf(compressor.values, nodes);
+        this.size = compressor.patterns;
+    }
+
+    /**
+     * Returns the number of patterns.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of nodes, one per pattern end or branch.
+     */
+    public int getNodeCount() {
+        return values.length;
+    }
+
+    /**
+     * Returns the number of edges.
+     */
+    public int getEdgeCount() {
+        return edgeChar.length;
+    }
+
+    /**
+     * Returns the number of characters of all edge labels, which is the
+     * number of nodes of the uncompressed trie minus its root.
+     */
+    public int getLabelLength() {
+        return labels.length;
+    }
+
+    // a node state is the node index; an edge state has the number of
+    // label characters matched, at least one, in the upper half
+
+    @Override
+    protected long rootState() {
+        return 0;
+    }
+
+    @Override
+    protected long child(long state, char c) {
+        int matched = (int) (state >>> 32);
+        int edge;
+        if (matched == 0) {
+            int node = (int) state;
+            int min = firstEdge[node];
+            int max = firstEdge[node + 1] - 1;
+            edge = -1;
+            while (min <= max) {
+                int mid = (min + max) >>> 1;
+                if (edgeChar[mid] < c)
+                    min = mid + 1;
+                else if (edgeChar[mid] > c)
+                    max = mid - 1;
+                else {
+                    edge = mid;
+                    break;
+                }
+            }
+            if (edge < 0) {
+                return NO_STATE;
+            }
+        } else {
+            edge = (int) state;
+            if (labels[labelStart[edge] + matched] != c) {
+                return NO_STATE;
+            }
+        }
+        matched++;
+        if (labelStart[edge] + matched == labelStart[edge + 1]) {
+            return edgeTarget[edge];
+        }
+        return ((long) matched << 32) | edge;
+    }
+
+    @Override
+    protected boolean isTerminal(long state) {
+        return (state >>> 32) == 0 && values[(int) state] != null;
+    }
+
+    @Override
+    protected Object valueOf(long state) {
+        return values[(int) state];
+    }
+
+    /**
+     * Numbers the nodes of a trie that end a pattern or branch in
+     * pre-order and collects the merged edges between them.
+     */
+    private static class Compressor {
+        int nodes = 0;
+        int edges = 0;
+        int length = 0;
+        int patterns = 0;
+        int[] firstEdge = new int[1024];
+        Object[] values = new Object[1024];
+        char[] edgeChar = new char[1024];
+        int[] edgeTarget = new int[1024];
+        int[] labelStart = new int[1024];
+        char[] labels = new char[4096];
+
+        /**
+         * Registers <code>node</code> and the subtree under it, and
+         * returns its index.
+         */
+        int register(AbstractTrie.TrieNode node) {
+            int id = nodes++;
+            if (id == values.length) {
+                int capacity = id + (id >> 1);
+                firstEdge = Arrays.copyOf(firstEdge, capacity + 1);
+                values = Arrays.copyOf(values, capacity);
+            }
+            if (node.terminal) {
+                values[id] = node.data;
+                patterns++;
+            }
+
+            AbstractTrie.TrieNode[] children = AbstractTrie.childrenOf(node);
+            int first = edges;
+            edges += children.length;
+            if (edges > edgeChar.length) {
+                int capacity = Math.max(edges, edgeChar.length + (edgeChar.length >> 1));
+                edgeChar = Arrays.copyOf(edgeChar, capacity);
+                edgeTarget = Arrays.copyOf(edgeTarget, capacity);
+                labelStart = Arrays.copyOf(labelStart, capacity + 1);
+            }
+            firstEdge[id] = first;
+
+            // the labels of the edges of one node must be consecutive, so
+            // follow every chain before registering the node it leads to
+            AbstractTrie.TrieNode[] ends = new AbstractTrie.TrieNode[children.length];
+            for (int i = 0; i < children.length; i++) {
+                AbstractTrie.TrieNode child = children[i];
+                edgeChar[first + i] = child.nodeChar;
+                labelStart[first + i] = length;
+                append(child.nodeChar);
+                AbstractTrie.TrieNode[] next = AbstractTrie.childrenOf(child);
+                while (!child.terminal && next.length == 1) {
+                    child = next[0];
+                    append(child.nodeChar);
+                    next = AbstractTrie.childrenOf(child);
+                }
+                ends[i] = child;
+            }
+            for (int i = 0; i < children.length; i++) {
+                // register() may grow edgeTarget, so read the field only
+                // after it returned
+                int target = register(ends[i]);
+                edgeTarget[first + i] = target;
+            }
+            return id;
+        }
+
+        private void append(char c) {
+            if (length == labels.length) {
+                labels = Arrays.copyOf(labels, length + (length >> 1));
+            }
+            labels[length++] = c;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.skplanet.nlp.trie;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded concurrent segmented LRU cache of lookup results<br>
+ * Keys are spread over independently locked segments.  Every segment
+ * keeps a probation and a protected LRU list: a new key enters probation
+ * and is moved to the protected list on its second hit, and the protected
+ * list, four fifths of the segment, only gives keys back to probation.
+ * A burst of one-off queries therefore only churns probation and does not
+ * flush the frequent queries.  In front of probation a doorkeeper bit set
+ * admits a key only the second time it is seen within a window, so the
+ * long tail of queries asked once is never stored at all.  Every entry is
+ * stamped with the version of the trie it was computed on; a segment that
+ * sees another version drops all its entries.  Misses are cached like any
+ * other result.
+ *
+ * @param <K> key type
+ */
+class ResultCache<K> {
+    // stands for a cached "no result"
+    static final Object NONE = new Object();
+
+    private final Segment<K>[] segments;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity largest number of results kept
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    ResultCache(int capacity) {
+        int count = Math.max(1, Math.min(16, Integer.highestOneBit(Math.max(1, capacity / 64))));
+        this.segments = new Segment[count];
+        this.mask = count - 1;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<K>((capacity + count - 1) / count);
+        }
+    }
+
+    /**
+     * Returns the cached result of <code>key</code> computed on trie
+     * version <code>version</code>, {@link #NONE} for a cached miss, or
+     * null if nothing is cached.
+     */
+    Object get(K key, int version) {
+        Object value = segment(key).get(key, version);
+        (value == null ? misses : hits).increment();
+        return value;
+    }
+
+    /**
+     * Caches the result of <code>key</code> computed on trie version
+     * <code>version</code>; null is cached as a miss.
+     */
+    void put(K key, Object value, int version) {
+        if (segment(key).put(key, value == null ? NONE : value, version)) {
+            evictions.increment();
+        }
+    }
+
+    void clear() {
+        for (Segment<K> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment<K> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    long getMissCount() {
+        return misses.sum();
+    }
+
+    long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private Segment<K> segment(K key) {
+        return segments[spread(key) & mask];
+    }
+
+    private static int spread(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * One independently locked part of the cache.
+     */
+    private static class Segment<K> {
+        private final int capacity;
+        private final int protectedCapacity;
+        // insertion ordered, eldest first
+        private final LinkedHashMap<K, Object> probation = new LinkedHashMap<K, Object>();
+        // access ordered, least recently used first
+        private final LinkedHashMap<K, Object> protectedList = new LinkedHashMap<K, Object>(16, 0.75f, true);
+        private int version = 0;
+        // keys seen once in the current window, by hash; cleared every
+        // few times the capacity of the segment
+        private final long[] doorkeeper;
+        private int sightings = 0;
+
+        Segment(int capacity) {
+            this.capacity = Math.max(1, capacity);
+            this.protectedCapacity = this.capacity * 4 / 5;
+            this.doorkeeper = new long[Math.max(1, Integer.highestOneBit(this.capacity))];
+        }
+
+        synchronized Object get(K key, int current) {
+            validate(current);
+            Object value = protectedList.get(key);
+            if (value != null) {
+                return value;
+            }
+            value = probation.remove(key);
+            if (value == null) {
+                return null;
+            }
+            if (protectedCapacity == 0) {
+                probation.put(key, value);
+                return value;
+            }
+            protectedList.put(key, value);
+            if (protectedList.size() > protectedCapacity) {
+                // demote the least recently used protected key
+                Iterator<Map.Entry<K, Object>> eldest = protectedList.entrySet().iterator();
+                Map.Entry<K, Object> entry = eldest.next();
+                eldest.remove();
+                probation.put(entry.getKey(), entry.getValue());
+            }
+            return value;
+        }
+
+        /**
+         * @return true if a key had to be evicted
+         */
+        synchronized boolean put(K key, Object value, int current) {
+            validate(current);
+            if (protectedList.containsKey(key)) {
+                protectedList.put(key, value);
+                return false;
+            }
+            if (!admit(key)) {
+                return false;
+            }
+            probation.put(key, value);
+            if (probation.size() + protectedList.size() <= capacity) {
+                return false;
+            }
+            LinkedHashMap<K, Object> victims = probation.isEmpty() ? protectedList : probation;
+            Iterator<K> eldest = victims.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            return true;
+        }
+
+        synchronized void clear() {
+            probation.clear();
+            protectedList.clear();
+        }
+
+        synchronized int size() {
+            return probation.size() + protectedList.size();
+        }
+
+        /**
+         * Returns true if <code>key</code> was already seen in the current
+         * window, otherwise remembers it.
+         */
+        private boolean admit(K key) {
+            // the lowest bits chose the segment
+            int h = spread(key);
+            int word = (h >>> 4) & (doorkeeper.length - 1);
+            long bit = 1L << (h >>> 26);
+            if ((doorkeeper[word] & bit) != 0) {
+                return true;
+            }
+            doorkeeper[word] |= bit;
+            if (++sightings > capacity << 2) {
+                Arrays.fill(doorkeeper, 0L);
+                sightings = 0;
+            }
+            return false;
+        }
+
+        /**
+         * Drops every entry computed on another version of the trie.
+         */
+        private void validate(int current) {
+            if (current != version) {
+                probation.clear();
+                protectedList.clear();
+                version = current;
+            }
+        }
+    }
+}
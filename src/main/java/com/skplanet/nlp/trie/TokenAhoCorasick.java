@@ -0,0 +1,247 @@
+package com.skplanet.nlp.trie;
+
+import java.util.Arrays;
+
+/**
+ * Aho-Corasick automaton over the patterns of a {@link TokenTrie}<br>
+ * Finds every multi-token pattern occurring anywhere in a token sequence
+ * in one pass, instead of calling <code>match()</code> or
+ * <code>prefixMatch()</code> at every offset.  Each pattern is identified
+ * by the id of the state it ends in, so hits can be returned as plain
+ * <code>int</code> spans without allocating anything per hit.<br>
+ * The automaton is immutable and can be shared between threads.
+ */
+public class TokenAhoCorasick {
+    private static final int ROOT = AutomatonBuilder.ROOT;
+
+    // edges of state s are firstEdge[s] .. firstEdge[s + 1] - 1, sorted by token
+    private final int[] firstEdge;
+    private final String[] edgeToken;
+    private final int[] fail;
+    private final int[] out;
+    private final int[] depth;
+    private final boolean[] terminal;
+    private final Object[] values;
+    private final int maxDepth;
+
+    /**
+     * Builds the automaton.  The source trie is only read and can be
+     * dropped afterwards.
+     *
+     * @param trie trie holding the patterns
+     */
+    public TokenAhoCorasick(AbstractTokenTrie trie) {
+        TokenNodeBuilder builder = new TokenNodeBuilder();
+        builder.build(trie.root);
+        firstEdge = builder.firstEdge;
+        edgeToken = builder.edgeToken;
+        fail = builder.fail;
+        out = builder.out;
+        depth = builder.depth;
+        terminal = builder.terminal;
+        values = builder.values;
+        maxDepth = builder.maxDepth;
+    }
+
+    /**
+     * Returns the number of states.
+     */
+    public int size() {
+        return fail.length;
+    }
+
+    /**
+     * Returns data of the pattern with the given id.
+     *
+     * @param patternId pattern id reported by {@link #scan(String[], MatchPolicy, int[])}
+     * @return matched object
+     */
+    public Object getValue(int patternId) {
+        return values[patternId];
+    }
+
+    /**
+     * Scans <code>input</code> and reports every occurrence of every
+     * pattern, overlapping ones included.
+     *
+     * @param input query tokens
+     * @param handler receives (start, end, value) of every hit
+     */
+    public void scan(String[] input, MatchHandler handler) {
+        scan(input, MatchPolicy.OVERLAPPING, handler);
+    }
+
+    /**
+     * Scans <code>input</code> and reports the occurrences of the patterns
+     * selected by <code>policy</code>.  Hits are reported in the order of
+     * their end, longest first among hits ending at the same position.
+     *
+     * @param input query tokens
+     * @param policy which of the overlapping hits to report
+     * @param handler receives (start, end, value) of every hit
+     */
+    public void scan(String[] input, MatchPolicy policy, final MatchHandler handler) {
+        scan(input, new HitCollector(depth, out, terminal, maxDepth, policy) {
+            @Override
+            boolean hit(int start, int end, int state) {
+                return handler.onMatch(start, end, values[state]);
+            }
+        });
+    }
+
+    /**
+     * Scans <code>input</code> and writes the hits selected by
+     * <code>policy</code> into <code>spans</code> as (start, end, pattern
+     * id) triples.  Data of a hit is available through
+     * {@link #getValue(int)}.  If <code>spans</code> is too short, the
+     * hits that do not fit are counted but not written.
+     *
+     * @param input query tokens
+     * @param policy which of the overlapping hits to report
+     * @param spans reusable output array, 3 ints per hit
+     * @return number of hits found
+     */
+    public int scan(String[] input, MatchPolicy policy, final int[] spans) {
+        final int[] count = new int[1];
+        scan(input, new HitCollector(depth, out, terminal, maxDepth, policy) {
+            @Override
+            boolean hit(int start, int end, int state) {
+                int i = count[0]++ * 3;
+                if (i + 2 < spans.length) {
+                    spans[i] = start;
+                    spans[i + 1] = end;
+                    spans[i + 2] = state;
+                }
+                return true;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * Stores for every index <code>i</code> of <code>input</code> the end
+     * index (exclusive) of the shortest, or of the longest, pattern
+     * starting at <code>i</code> in <code>ends[i]</code>, or -1 if none
+     * starts there.  Takes one pass over the input plus one step per hit.
+     *
+     * @param input query tokens
+     * @param longest true for the longest pattern per start, false for the shortest
+     * @param ends reusable spans, at least as long as the input
+     * @param data reusable values, at least as long as the input, or null
+     * @return number of positions at which a pattern starts
+     */
+    int matchesPerStart(String[] input, boolean longest, int[] ends, Object[] data) {
+        Arrays.fill(ends, 0, input.length, -1);
+        if (data != null) {
+            Arrays.fill(data, 0, input.length, null);
+        }
+        int count = 0;
+        int state = ROOT;
+        for (int i = 0; i < input.length; i++) {
+            // no pattern contains a null token
+            state = input[i] == null ? ROOT : next(state, input[i]);
+            // ends only grow, so the first hit of a start is its shortest
+            // pattern and the last one its longest
+            for (int s = terminal[state] ? state : out[state]; s > ROOT; s = out[s]) {
+                int start = i + 1 - depth[s];
+                if (ends[start] < 0) {
+                    count++;
+                } else if (!longest) {
+                    continue;
+                }
+                ends[start] = i + 1;
+                if (data != null) {
+                    data[start] = values[s];
+                }
+            }
+        }
+        return count;
+    }
+
+    private void scan(String[] input, HitCollector collector) {
+        int state = ROOT;
+        for (int i = 0; i < input.length; i++) {
+            // no pattern contains a null token
+            state = input[i] == null ? ROOT : next(state, input[i]);
+            if (state != ROOT && !collector.step(state, i + 1)) {
+                return;
+            }
+        }
+        collector.finish(input.length);
+    }
+
+    /**
+     * Returns the state reached from <code>state</code> on
+     * <code>token</code>, following failure links as needed.
+     */
+    private int next(int state, String token) {
+        int t;
+        while ((t = edge(state, token)) < 0) {
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+        return t;
+    }
+
+    private int edge(int state, String token) {
+        return edge(firstEdge, edgeToken, state, token);
+    }
+
+    /**
+     * Returns the child of <code>state</code> on <code>token</code>, or -1.
+     */
+    private static int edge(int[] firstEdge, String[] edgeToken, int state, String token) {
+        int min = firstEdge[state];
+        int max = firstEdge[state + 1] - 1;
+        while (min <= max) {
+            int mid = (min + max) >>> 1;
+            int cmp = edgeToken[mid].compareTo(token);
+            if (cmp < 0)
+                min = mid + 1;
+            else if (cmp > 0)
+                max = mid - 1;
+            else
+                return mid + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the node graph of an {@link AbstractTokenTrie}.
+     */
+    private static class TokenNodeBuilder extends AutomatonBuilder<AbstractTokenTrie.TrieNode> {
+        String[] edgeToken;
+
+        @Override
+        AbstractTokenTrie.TrieNode[] children(AbstractTokenTrie.TrieNode node) {
+            return AbstractTokenTrie.childrenOf(node);
+        }
+
+        @Override
+        boolean isTerminal(AbstractTokenTrie.TrieNode node) {
+            return node.terminal;
+        }
+
+        @Override
+        Object value(AbstractTokenTrie.TrieNode node) {
+            return node.data;
+        }
+
+        @Override
+        void allocateLabels(int edges) {
+            edgeToken = new String[edges];
+        }
+
+        @Override
+        void setLabel(int e, AbstractTokenTrie.TrieNode child) {
+            edgeToken[e] = child.nodeStr;
+        }
+
+        @Override
+        int edgeWithLabelOf(int state, int e) {
+            return edge(firstEdge, edgeToken, state, edgeToken[e]);
+        }
+    }
+}
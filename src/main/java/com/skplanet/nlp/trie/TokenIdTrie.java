@@ -0,0 +1,213 @@
+package com.skplanet.nlp.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Integer Token Trie<br>
+ * Double-Array compiled {@link TokenTrie} whose edges are token ids of a
+ * {@link TokenVocabulary}, so every step is one array access instead of a
+ * binary search over <code>String</code>s.  Build it once from a
+ * populated token trie, then encode the queries with the vocabulary:
+ * <pre>
+ *     TokenIdTrie compiled = new TokenIdTrie(tokenTrie);
+ *     int[] ids = compiled.getVocabulary().encode(tokens);
+ *     Object value = compiled.match(ids, 0);
+ * </pre>
+ * Immutable and thread-safe, as long as no tokens are added to its
+ * vocabulary afterwards.
+ */
+public class TokenIdTrie {
+    private final TokenVocabulary vocabulary;
+    private final DoubleArray array;
+    private final Object[] values;
+
+    /**
+     * Compiles the given token trie with a vocabulary of its own, in
+     * which ids follow the sorted order of the tokens.
+     *
+     * @param trie token trie to be compiled
+     */
+    public TokenIdTrie(AbstractTokenTrie trie) {
+        this(trie, new TokenVocabulary());
+    }
+
+    /**
+     * Compiles the given token trie against a shared vocabulary.  Tokens
+     * of the trie missing from the vocabulary are interned in sorted
+     * order.
+     *
+     * @param trie token trie to be compiled
+     * @param vocabulary vocabulary used to encode queries
+     */
+    public TokenIdTrie(AbstractTokenTrie trie, TokenVocabulary vocabulary) {
+        this.vocabulary = vocabulary;
+        IdNodeBuilder builder = new IdNodeBuilder(trie, vocabulary);
+        this.array = builder.build(trie.root);
+        this.values = builder.values().toArray();
+    }
+
+    /**
+     * Returns the vocabulary the ids of this trie belong to.
+     */
+    public TokenVocabulary getVocabulary() {
+        return vocabulary;
+    }
+
+    /**
+     * Returns the number of patterns.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns the number of slots of the base/check arrays.
+     */
+    public int getArraySize() {
+        return array.size();
+    }
+
+    /**
+     * Exact Match
+     *
+     * @param input query token ids
+     * @return matched object
+     * @see TokenTrie#match(String[])
+     */
+    public Object match(int[] input) {
+        return match(input, 0);
+    }
+
+    /**
+     * Exact Match with starting offset
+     *
+     * @param input query token ids
+     * @param offset start index
+     * @return matched object
+     * @see TokenTrie#match(String[], int)
+     */
+    public Object match(int[] input, int offset) {
+        int state = DoubleArray.ROOT;
+        int result = -1;
+        for (int i = offset; i < input.length; i++) {
+            state = child(state, input[i]);
+            if (state < 0) {
+                return null;
+            }
+            int index = array.valueIndex(state);
+            if (index >= 0) {
+                result = index;
+            }
+        }
+        return result < 0 ? null : values[result];
+    }
+
+    /**
+     * Prefix Token Trie Match
+     *
+     * @param input query token ids
+     * @return end index of matching part
+     */
+    public int prefixMatch(int[] input) {
+        return prefixMatch(input, 0);
+    }
+
+    /**
+     * Prefix Token Trie Match with starting offset
+     *
+     * @param input query token ids
+     * @param offset start index
+     * @return end index of matching part
+     */
+    public int prefixMatch(int[] input, int offset) {
+        int state = DoubleArray.ROOT;
+        int i = offset;
+        while (i < input.length) {
+            state = child(state, input[i]);
+            if (state < 0) {
+                return i;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns true if the given token ids are a path in the ds, otherwise
+     * return false.
+     *
+     * @see TokenTrie#contains(String[])
+     */
+    public boolean contains(int[] input) {
+        return prefixMatch(input, 0) == input.length;
+    }
+
+    private int child(int state, int id) {
+        if (id < 0) {
+            return -1;
+        }
+        return array.child(state, id + 1);
+    }
+
+    /**
+     * Reads the node graph of an {@link AbstractTokenTrie}, token id
+     * <code>i</code> being code <code>i + 1</code>.
+     */
+    static class IdNodeBuilder extends DoubleArray.Builder<AbstractTokenTrie.TrieNode> {
+        private final TokenVocabulary vocabulary;
+        private final Comparator<AbstractTokenTrie.TrieNode> byId = new Comparator<AbstractTokenTrie.TrieNode>() {
+            public int compare(AbstractTokenTrie.TrieNode a, AbstractTokenTrie.TrieNode b) {
+                return code(a) - code(b);
+            }
+        };
+
+        IdNodeBuilder(AbstractTokenTrie trie, TokenVocabulary vocabulary) {
+            this.vocabulary = vocabulary;
+            TreeSet<String> tokens = new TreeSet<String>();
+            List<AbstractTokenTrie.TrieNode> stack = new ArrayList<AbstractTokenTrie.TrieNode>();
+            stack.add(trie.root);
+            while (!stack.isEmpty()) {
+                for (AbstractTokenTrie.TrieNode child : AbstractTokenTrie.childrenOf(stack.remove(stack.size() - 1))) {
+                    tokens.add(child.nodeStr);
+                    stack.add(child);
+                }
+            }
+            for (String token : tokens) {
+                vocabulary.intern(token);
+            }
+        }
+
+        @Override
+        AbstractTokenTrie.TrieNode[] children(AbstractTokenTrie.TrieNode node) {
+            // children are sorted by token, codes must ascend
+            AbstractTokenTrie.TrieNode[] children = AbstractTokenTrie.childrenOf(node);
+            for (int i = 1; i < children.length; i++) {
+                if (code(children[i - 1]) > code(children[i])) {
+                    children = Arrays.copyOf(children, children.length);
+                    Arrays.sort(children, byId);
+                    break;
+                }
+            }
+            return children;
+        }
+
+        @Override
+        int code(AbstractTokenTrie.TrieNode node) {
+            return vocabulary.id(node.nodeStr) + 1;
+        }
+
+        @Override
+        boolean isTerminal(AbstractTokenTrie.TrieNode node) {
+            return node.terminal;
+        }
+
+        @Override
+        Object value(AbstractTokenTrie.TrieNode node) {
+            return node.data;
+        }
+    }
+}
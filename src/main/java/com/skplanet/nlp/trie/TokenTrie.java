@@ -1,6 +1,7 @@
 package com.skplanet.nlp.trie;
 
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Token-Based Trie Implementation, which extends {@link AbstractTokenTrie}
@@ -9,6 +10,12 @@ import java.util.Set;
  * Date: 7/12/13<br>
  */
 public class TokenTrie extends AbstractTokenTrie {
+    // optional lookup instrumentation, null when disabled
+    private volatile TrieMetrics metrics;
+    // bumped by every change of the patterns, read by result caches
+    volatile int modCount = 0;
+    // built on demand for the per-position matches, null until then
+    private volatile Automaton automaton;
 
     /**
      * Constructor
@@ -17,8 +24,19 @@ public class TokenTrie extends AbstractTokenTrie {
         super();
     }
 
+    /**
+     * Copy Constructor
+     *
+     * @param obj trie to be copied
+     */
     public TokenTrie(TokenTrie obj) {
-        super();
+        super(obj, false);
+        this.metrics = obj.metrics;
+    }
+
+    private TokenTrie(TokenTrie obj, boolean frozen) {
+        super(obj, frozen);
+        this.metrics = obj.metrics;
     }
 
     /**
@@ -80,6 +98,8 @@ public class TokenTrie extends AbstractTokenTrie {
 	 * @return matched object
 	 */
 	public Object RelaxedMatch(String[] input, Set<Integer> skipPoint) {
+        TrieMetrics metrics = this.metrics;
+        long start = metrics == null ? 0L : System.nanoTime();
         TrieNode node = this.root;
         Object result = null;
         int i = 0;
@@ -90,6 +110,9 @@ public class TokenTrie extends AbstractTokenTrie {
 			}
             node = node.getChild(input[i]);
             if (node == null) {
+                if (metrics != null) {
+                    metrics.record(TrieMetrics.Operation.TOKEN_RELAXED_MATCH, false, i, start);
+                }
                 return null;
             }
             if (node.isTerminal()) {
@@ -97,6 +120,9 @@ public class TokenTrie extends AbstractTokenTrie {
             }
             i++;
         }
+        if (metrics != null) {
+            metrics.record(TrieMetrics.Operation.TOKEN_RELAXED_MATCH, result != null, i, start);
+        }
         return result;
 	}
 
@@ -111,6 +137,8 @@ public class TokenTrie extends AbstractTokenTrie {
 	 * @return matched object
 	 */
 	public Object RelaxedMatch(String[] input, int offset, Set<Integer> skipPoint) {
+        TrieMetrics metrics = this.metrics;
+        long start = metrics == null ? 0L : System.nanoTime();
         TrieNode node = this.root;
         Object result = null;
         int i = offset;
@@ -121,16 +149,16 @@ public class TokenTrie extends AbstractTokenTrie {
 			}
             node = node.getChild(input[i]);
             if (node == null) {
-                if (result != null) {
-                    return result;
-                }
-                return null;
+                break;
             }
             if (node.isTerminal()) {
                 result =  node.data;
             }
             i++;
         }
+        if (metrics != null) {
+            metrics.record(TrieMetrics.Operation.TOKEN_RELAXED_MATCH, result != null, i - offset, start);
+        }
         return result;
 	}
 
@@ -225,7 +253,29 @@ public class TokenTrie extends AbstractTokenTrie {
 	 */
 	@Override
 	public Object shortestMatch(String[] input) {
-		// TODO : shortest token trie match implementation
+		return shortestMatch(input, 0);
+	}
+
+	/**
+	 * Shortest Match with starting offset<br>
+	 * Returns data of the shortest pattern the tokens from
+	 * <code>offset</code> on start with, otherwise return null.
+	 *
+	 * @param input query tokens
+	 * @param offset start index
+	 * @return matched object
+	 */
+	public Object shortestMatch(String[] input, int offset) {
+		TrieNode node = this.root;
+		for (int i = offset; i < input.length; i++) {
+			node = node.getChild(input[i]);
+			if (node == null) {
+				return null;
+			}
+			if (node.isTerminal()) {
+				return node.data;
+			}
+		}
 		return null;
 	}
 
@@ -236,8 +286,92 @@ public class TokenTrie extends AbstractTokenTrie {
 	 */
 	@Override
 	public Object longestMatch(String[] input) {
-		// TODO : longest token trie match implementation
-		return null;
+		return longestMatch(input, 0);
+	}
+
+	/**
+	 * Longest Match with starting offset<br>
+	 * Returns data of the longest pattern the tokens from
+	 * <code>offset</code> on start with, otherwise return null.
+	 *
+	 * @param input query tokens
+	 * @param offset start index
+	 * @return matched object
+	 */
+	public Object longestMatch(String[] input, int offset) {
+		TrieNode node = this.root;
+		Object result = null;
+		for (int i = offset; i < input.length; i++) {
+			node = node.getChild(input[i]);
+			if (node == null) {
+				break;
+			}
+			if (node.isTerminal()) {
+				result = node.data;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Shortest Match at every position<br>
+	 * For each index <code>i</code> of the input, stores the end index
+	 * (exclusive) of the shortest pattern starting at <code>i</code> in
+	 * <code>ends[i]</code>, or -1 if none starts there.  Runs a
+	 * {@link TokenAhoCorasick} over the input in one pass, so the cost is
+	 * linear in the input length plus the number of pattern occurrences.
+	 * The automaton is built on the first call after the patterns changed.
+	 *
+	 * @param input query tokens
+	 * @param ends reusable spans, at least as long as the input
+	 * @param values reusable values, at least as long as the input, or null
+	 * @return number of positions at which a pattern starts
+	 */
+	public int shortestMatches(String[] input, int[] ends, Object[] values) {
+		return automaton().matchesPerStart(input, false, ends, values);
+	}
+
+	/**
+	 * Longest Match at every position<br>
+	 * For each index <code>i</code> of the input, stores the end index
+	 * (exclusive) of the longest pattern starting at <code>i</code> in
+	 * <code>ends[i]</code>, or -1 if none starts there.  Same single pass
+	 * as {@link #shortestMatches(String[], int[], Object[])}.
+	 *
+	 * @param input query tokens
+	 * @param ends reusable spans, at least as long as the input
+	 * @param values reusable values, at least as long as the input, or null
+	 * @return number of positions at which a pattern starts
+	 */
+	public int longestMatches(String[] input, int[] ends, Object[] values) {
+		return automaton().matchesPerStart(input, true, ends, values);
+	}
+
+	/**
+	 * Returns the automaton over the current patterns, rebuilding it if
+	 * the trie changed since it was built.
+	 */
+	private TokenAhoCorasick automaton() {
+		Automaton current = automaton;
+		int version = modCount;
+		if (current == null || current.version != version) {
+			current = new Automaton(new TokenAhoCorasick(this), version);
+			automaton = current;
+		}
+		return current.matcher;
+	}
+
+	/**
+	 * An automaton together with the trie version it was built on.
+	 */
+	private static final class Automaton {
+		final TokenAhoCorasick matcher;
+		final int version;
+
+		Automaton(TokenAhoCorasick matcher, int version) {
+			this.matcher = matcher;
+			this.version = version;
+		}
 	}
 
 	/**
@@ -245,15 +379,126 @@ public class TokenTrie extends AbstractTokenTrie {
 	 *
 	 * @param key key ( must be {@link String} )
 	 * @param val value ( any object )
-	 * @return true if successed otherwise false
+	 * @return true if successed otherwise false ( always false on a frozen trie )
 	 */
 	@Override
 	public boolean put(String []key, Object val) {
-		if (key.length == 0 || val == null) {
+		if (frozen || key.length == 0 || val == null) {
 			return false;
 		}
 		addPatternForward(key, val);
+		modCount++;
 		return true;
 	}
 
+	/**
+	 * Remove the given key and its value from the {@link TokenTrie}<br>
+	 * Nodes no other key goes through anymore are pruned.
+	 *
+	 * @param key key tokens to be removed
+	 * @return removed value, null if the key was not in the trie ( always
+	 * null on a frozen trie )
+	 */
+	public Object remove(String[] key) {
+		if (frozen || key == null || key.length == 0) {
+			return null;
+		}
+		Object removed = removePatternForward(key);
+		if (removed != null) {
+			modCount++;
+		}
+		return removed;
+	}
+
+	/**
+	 * Replace the value of a key already in the {@link TokenTrie}
+	 *
+	 * @param key key tokens
+	 * @param val new value ( any object )
+	 * @return true if replaced, false if the key is not in the trie
+	 */
+	public boolean replace(String[] key, Object val) {
+		if (frozen || key == null || key.length == 0 || val == null) {
+			return false;
+		}
+		TrieNode node = findPattern(key);
+		if (node == null) {
+			return false;
+		}
+		node.data = val;
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * Returns the value of the given key, computing it and adding the pair
+	 * first if the key is not in the {@link TokenTrie} yet.  Nothing is
+	 * added if the function returns null or the trie is frozen.
+	 *
+	 * @param key key tokens
+	 * @param function computes the value of a missing key
+	 * @return current value, or the computed one
+	 */
+	public Object computeIfAbsent(String[] key, Function<? super String[], ?> function) {
+		if (key == null || key.length == 0) {
+			return null;
+		}
+		TrieNode node = findPattern(key);
+		if (node != null) {
+			return node.data;
+		}
+		Object val = function.apply(key);
+		if (val != null && !frozen) {
+			addPatternForward(key, val);
+			modCount++;
+		}
+		return val;
+	}
+
+	/**
+	 * Compact the {@link TokenTrie}<br>
+	 * Drops branches no key goes through and shrinks every child container
+	 * to an exact sized array.  Does nothing on a frozen trie.
+	 */
+	public void compact() {
+		if (!frozen) {
+			compactNodes();
+		}
+	}
+
+	/**
+	 * Freeze the {@link TokenTrie}<br>
+	 * Returns a read-only copy whose nodes are already compacted into sorted
+	 * arrays, so lookups neither lock nor modify the graph and the copy can
+	 * be shared between threads.  Must be called by the thread that writes
+	 * to this trie.
+	 *
+	 * @return frozen snapshot, or this trie if it is already frozen
+	 */
+	@Override
+	public TokenTrie freeze() {
+		if (frozen) {
+			return this;
+		}
+		return new TokenTrie(this, true);
+	}
+
+	/**
+	 * Attaches lookup instrumentation to the {@link TokenTrie}<br>
+	 * <code>RelaxedMatch</code> records into the given metrics from now on;
+	 * copies and snapshots made afterwards record into them too.
+	 *
+	 * @param metrics metrics to record into, null to disable
+	 */
+	public void setMetrics(TrieMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Returns the attached instrumentation, null if disabled.
+	 */
+	public TrieMetrics getMetrics() {
+		return metrics;
+	}
+
 }
@@ -0,0 +1,276 @@
+package com.skplanet.nlp.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Bulk Builder for {@link TokenTrie}<br>
+ * Collects token sequence/value pairs and builds the trie bottom-up in one
+ * pass over the sorted sequences, like {@link TrieBuilder} does for
+ * characters.  The result is the same as calling <code>put()</code> for
+ * every pair in the given order: empty sequences and null values are
+ * ignored, and the last value of a duplicate sequence wins.
+ * <pre>
+ *     TokenTrieBuilder builder = new TokenTrieBuilder();
+ *     builder.add(new String[]{"new", "york"}, value);
+ *     ...
+ *     TokenTrie trie = builder.build(ForkJoinPool.commonPool());
+ * </pre>
+ */
+public class TokenTrieBuilder {
+    // key ranges smaller than this are built by one task
+    static final int SPLIT_THRESHOLD = 8192;
+
+    private static final Comparator<String[]> TOKEN_ORDER = new Comparator<String[]>() {
+        public int compare(String[] a, String[] b) {
+            int max = Math.min(a.length, b.length);
+            for (int i = 0; i < max; i++) {
+                int val = a[i].compareTo(b[i]);
+                if (val != 0) {
+                    return val;
+                }
+            }
+            return a.length - b.length;
+        }
+    };
+
+    private String[][] keys = new String[1024][];
+    private Object[] values = new Object[1024];
+    private int size = 0;
+    private boolean sorted = true;
+    private TrieMetrics metrics;
+
+    /**
+     * Add Key, Value pair to the builder
+     *
+     * @param key key tokens
+     * @param val value ( any object )
+     * @return true if successed, otherwise false
+     */
+    public boolean add(String[] key, Object val) {
+        if (key == null || key.length == 0 || val == null) {
+            return false;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size + (size >> 1));
+            values = Arrays.copyOf(values, keys.length);
+        }
+        if (sorted && size > 0 && TOKEN_ORDER.compare(keys[size - 1], key) > 0) {
+            sorted = false;
+        }
+        keys[size] = key;
+        values[size] = val;
+        size++;
+        return true;
+    }
+
+    /**
+     * Returns the number of pairs added so far.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Builds the {@link TokenTrie} out of the pairs added so far.
+     *
+     * @return new trie
+     */
+    public TokenTrie build() {
+        long start = System.currentTimeMillis();
+        sort(null);
+        TokenTrie trie = new TokenTrie();
+        AbstractTokenTrie.TrieNode top = buildRange(trie, 0, size, 0);
+        trie.root.children = top.children;
+        trie.root.childrenList = null;
+        if (metrics != null) {
+            metrics.recordBuild(System.currentTimeMillis() - start);
+        }
+        return trie;
+    }
+
+    /**
+     * Builds the {@link TokenTrie} out of the pairs added so far on the
+     * threads of <code>pool</code>.  The sequences are split by their
+     * first token and the subtrie of every first token is built by its
+     * own task.  The result is the same as the one of {@link #build()}.
+     *
+     * @param pool pool the subtries are built on
+     * @return new trie
+     */
+    public TokenTrie build(ForkJoinPool pool) {
+        long start = System.currentTimeMillis();
+        sort(pool);
+        List<Integer> groups = new ArrayList<Integer>();
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || !keys[i][0].equals(keys[i - 1][0])) {
+                groups.add(i);
+            }
+        }
+        groups.add(size);
+        int[] bounds = new int[groups.size()];
+        for (int g = 0; g < bounds.length; g++) {
+            bounds[g] = groups.get(g);
+        }
+        TokenTrie trie = new TokenTrie();
+        AbstractTokenTrie.TrieNode[] children = new AbstractTokenTrie.TrieNode[bounds.length - 1];
+        pool.invoke(new GroupTask(trie, bounds, children, 0, children.length));
+        trie.root.children = children;
+        trie.root.childrenList = null;
+        if (metrics != null) {
+            metrics.recordBuild(System.currentTimeMillis() - start);
+        }
+        return trie;
+    }
+
+    /**
+     * Attaches instrumentation that records the time of every build.
+     *
+     * @param metrics metrics to record into, null to disable
+     */
+    public void setMetrics(TrieMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sorts the pairs by key, stably.
+     *
+     * @param pool pool to sort on, null to sort on the calling thread
+     */
+    private void sort(ForkJoinPool pool) {
+        if (sorted) {
+            return;
+        }
+        final Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        final String[][] k = keys;
+        final Comparator<Integer> byKey = new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return TOKEN_ORDER.compare(k[a], k[b]);
+            }
+        };
+        if (pool != null) {
+            // run inside the pool, the sort then forks its subtasks there
+            // instead of on the common pool
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    Arrays.parallelSort(order, byKey);
+                }
+            });
+        } else {
+            Arrays.sort(order, byKey);
+        }
+        String[][] sortedKeys = new String[keys.length][];
+        Object[] sortedValues = new Object[values.length];
+        for (int i = 0; i < size; i++) {
+            sortedKeys[i] = keys[order[i]];
+            sortedValues[i] = values[order[i]];
+        }
+        keys = sortedKeys;
+        values = sortedValues;
+        sorted = true;
+    }
+
+    /**
+     * Builds the node graph of the sorted sequences <code>[from, to)</code>,
+     * which all share their first <code>depth</code> tokens, and returns
+     * its root, standing for token <code>depth - 1</code>.
+     */
+    AbstractTokenTrie.TrieNode buildRange(TokenTrie trie, int from, int to, int depth) {
+        List<AbstractTokenTrie.TrieNode> path = new ArrayList<AbstractTokenTrie.TrieNode>();
+        List<List<AbstractTokenTrie.TrieNode>> pending = new ArrayList<List<AbstractTokenTrie.TrieNode>>();
+        AbstractTokenTrie.TrieNode top = trie.new TrieNode(depth == 0 ? "" : keys[from][depth - 1], false, null);
+        path.add(top);
+        pending.add(new ArrayList<AbstractTokenTrie.TrieNode>());
+
+        String[] prev = null;
+        int open = 0;
+        for (int i = from; i < to; i++) {
+            String[] key = keys[i];
+            int common = depth;
+            if (prev != null) {
+                int max = Math.min(prev.length, key.length);
+                while (common < max && prev[common].equals(key[common])) {
+                    common++;
+                }
+            }
+            // close the nodes below the common prefix
+            while (open > common - depth) {
+                close(path.get(open), pending.get(open));
+                open--;
+            }
+            for (int d = common; d < key.length; d++) {
+                AbstractTokenTrie.TrieNode node = trie.new TrieNode(key[d], false, null);
+                pending.get(open).add(node);
+                open++;
+                if (path.size() == open) {
+                    path.add(node);
+                    pending.add(new ArrayList<AbstractTokenTrie.TrieNode>());
+                } else {
+                    path.set(open, node);
+                }
+            }
+            AbstractTokenTrie.TrieNode last = path.get(open);
+            last.terminal = true;
+            last.data = values[i];
+            prev = key;
+        }
+        while (open >= 0) {
+            close(path.get(open), pending.get(open));
+            open--;
+        }
+        return top;
+    }
+
+    private static void close(AbstractTokenTrie.TrieNode node, List<AbstractTokenTrie.TrieNode> children) {
+        node.children = children.toArray(new AbstractTokenTrie.TrieNode[children.size()]);
+        node.childrenList = null;
+        children.clear();
+    }
+
+    /**
+     * Builds the subtries of the first token groups <code>[from, to)</code>,
+     * splitting the groups in halves of about the same number of sequences
+     * down to {@link #SPLIT_THRESHOLD} sequences.
+     */
+    @SuppressWarnings("serial")
+    private class GroupTask extends RecursiveAction {
+        private final TokenTrie trie;
+        private final int[] bounds;
+        private final AbstractTokenTrie.TrieNode[] children;
+        private final int from;
+        private final int to;
+
+        GroupTask(TokenTrie trie, int[] bounds, AbstractTokenTrie.TrieNode[] children, int from, int to) {
+            this.trie = trie;
+            this.bounds = bounds;
+            this.children = children;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1 || bounds[to] - bounds[from] <= SPLIT_THRESHOLD) {
+                for (int g = from; g < to; g++) {
+                    children[g] = buildRange(trie, bounds[g], bounds[g + 1], 1);
+                }
+                return;
+            }
+            // split where half of the sequences are on each side
+            int half = (bounds[from] + bounds[to]) >>> 1;
+            int mid = from + 1;
+            while (mid < to - 1 && bounds[mid + 1] <= half) {
+                mid++;
+            }
+            invokeAll(new GroupTask(trie, bounds, children, from, mid), new GroupTask(trie, bounds, children, mid, to));
+        }
+    }
+}
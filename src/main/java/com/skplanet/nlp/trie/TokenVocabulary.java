@@ -0,0 +1,92 @@
+package com.skplanet.nlp.trie;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Token Vocabulary<br>
+ * Interns tokens to dense <code>int</code> ids, 0 for the first token
+ * interned, 1 for the next one, and so on, so token sequences can be
+ * handed to {@link TokenIdTrie} as <code>int[]</code>.  Encode the input
+ * once, then run any number of lookups on the ids.<br>
+ * Interning is not thread-safe; lookups of known tokens are safe once no
+ * more tokens are interned.
+ */
+public class TokenVocabulary {
+    /**
+     * Id of a token that is not in the vocabulary.
+     */
+    public static final int UNKNOWN = -1;
+
+    private final Map<String, Integer> ids = new HashMap<String, Integer>();
+    private String[] tokens = new String[1024];
+
+    /**
+     * Returns the id of <code>token</code>, adding it to the vocabulary
+     * if it is new.
+     */
+    public int intern(String token) {
+        Integer id = ids.get(token);
+        if (id != null) {
+            return id;
+        }
+        int size = ids.size();
+        if (size == tokens.length) {
+            tokens = Arrays.copyOf(tokens, size + (size >> 1));
+        }
+        tokens[size] = token;
+        ids.put(token, size);
+        return size;
+    }
+
+    /**
+     * Returns the id of <code>token</code>, or {@link #UNKNOWN}.
+     */
+    public int id(String token) {
+        Integer id = ids.get(token);
+        return id == null ? UNKNOWN : id;
+    }
+
+    /**
+     * Returns the token of <code>id</code>, or null if no such id exists.
+     */
+    public String token(int id) {
+        if (id < 0 || id >= ids.size()) {
+            return null;
+        }
+        return tokens[id];
+    }
+
+    /**
+     * Returns the number of tokens.
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Returns the ids of the given tokens, {@link #UNKNOWN} for tokens not
+     * in the vocabulary.
+     */
+    public int[] encode(String[] input) {
+        int[] result = new int[input.length];
+        encode(input, result);
+        return result;
+    }
+
+    /**
+     * Writes the ids of the given tokens into <code>result</code>, which
+     * must be at least as long as the input.
+     *
+     * @param input tokens
+     * @param result reusable id buffer
+     * @return number of ids written
+     */
+    public int encode(String[] input, int[] result) {
+        for (int i = 0; i < input.length; i++) {
+            result[i] = id(input[i]);
+        }
+        return input.length;
+    }
+}
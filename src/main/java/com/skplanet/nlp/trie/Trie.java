@@ -1,5 +1,11 @@
 package com.skplanet.nlp.trie;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * General Trie Implementation, which extends {@link AbstractTrie}
  * <br><br>Created by Donghun Shin<br>
@@ -7,7 +13,12 @@ package com.skplanet.nlp.trie;
  * Date: 7/12/13<br>
  */
 public class Trie extends AbstractTrie {
-    private static final String SYMBOLS = "\"'-#.";
+    static final String SYMBOLS = "\"'-#.";
+
+    // optional lookup instrumentation, null when disabled
+    private volatile TrieMetrics metrics;
+    // bumped by every change of the patterns, read by result caches
+    volatile int modCount = 0;
 
     /**
      * Constructor
@@ -16,6 +27,26 @@ public class Trie extends AbstractTrie {
         super();
     }
 
+    /**
+     * Copy Constructor
+     *
+     * @param obj trie to be copied
+     */
+    public Trie(Trie obj) {
+        super(compactCopy(obj.root), false);
+        this.metrics = obj.metrics;
+    }
+
+    /**
+     * Constructor for an already built node graph
+     *
+     * @param root root node
+     * @param frozen true if the graph is read-only
+     */
+    protected Trie(TrieNode root, boolean frozen) {
+        super(root, frozen);
+    }
+
     /**
      * Exact Match
      *
@@ -24,28 +55,44 @@ public class Trie extends AbstractTrie {
      */
     @Override
     public TrieData match(String input) {
-        TrieNode node = this.root;
-        String key = "";
-        Object value;
-        TrieData result = null;
-        for (int i = 0; i < input.length(); i++) {
-            key += input.charAt(i);
-            if (input.charAt(i) == ' ') {
-                continue;
-            }
-            node = node.getChild(input.charAt(i));
-            if (node == null) {
-                return null;
-            }
-            if (node.isTerminal()) {
-                value = node.data;
-                result = new TrieData();
-                result.setKey(key);
-                result.setValue(value);
-                result.setLength(i);
-            }
-        }
-        return result;
+        MatchResult result = new MatchResult();
+        if (!match(input, result)) {
+            return null;
+        }
+        return result.toTrieData();
+    }
+
+    /**
+     * Exact Match without allocation
+     *
+     * Walks the whole input, skipping spaces, and reports the last pattern
+     * seen on the way if the whole input is a path in the ds.
+     *
+     * @param input input to be looked up
+     * @param result reusable result, filled in on match
+     * @return true if matched, otherwise false
+     */
+    public boolean match(CharSequence input, MatchResult result) {
+        return match(input, 0, input.length(), result);
+    }
+
+    /**
+     * Same as {@link #match(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of <code>input</code>.  Indexes
+     * of the result refer to <code>input</code>; a {@link java.nio.CharBuffer}
+     * is indexed from its position.
+     */
+    public boolean match(CharSequence input, int offset, int length, MatchResult result) {
+        return result.cursor.start(root).match(input, null, offset, length, result, metrics);
+    }
+
+    /**
+     * Same as {@link #match(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of a <code>char</code> buffer.
+     * Indexes of the result refer to <code>input</code>.
+     */
+    public boolean match(char[] input, int offset, int length, MatchResult result) {
+        return result.cursor.start(root).match(null, input, offset, length, result, metrics);
     }
 
     /**
@@ -54,27 +101,43 @@ public class Trie extends AbstractTrie {
      * @return End index of matching part, -1 if doesn't match at all
      */
     public TrieData prefixMatch(String input) {
-        TrieNode node = this.root;
-        String key = "";
-        Object value;
-        TrieData result = new TrieData();
-        for (int i = 0; i < input.length(); i++) {
-            key += input.charAt(i);
-            if (input.charAt(i) == ' ') {
-                continue;
-            }
-            node = node.getChild(input.charAt(i));
-            if (node == null) {
-                return result;
-            }
-            result.setKey(key);
-            result.setLength(i);
-            if (node.isTerminal()) {
-                value = node.data;
-                result.setValue(value);
-            }
-        }
-        return result;
+        MatchResult result = new MatchResult();
+        prefixMatch(input, result);
+        return result.toTrieData();
+    }
+
+    /**
+     * Prefix Trie match without allocation
+     *
+     * Follows the input as far as it is a path in the ds, skipping spaces.
+     * The end of the result is where the path stops, its value is the
+     * one of the last pattern seen on the way.
+     *
+     * @param input input to be looked up
+     * @param result reusable result
+     * @return true if a pattern was seen, otherwise false
+     */
+    public boolean prefixMatch(CharSequence input, MatchResult result) {
+        return prefixMatch(input, 0, input.length(), result);
+    }
+
+    /**
+     * Same as {@link #prefixMatch(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of <code>input</code>.  Indexes
+     * of the result refer to <code>input</code>; a {@link java.nio.CharBuffer}
+     * is indexed from its position.
+     */
+    public boolean prefixMatch(CharSequence input, int offset, int length, MatchResult result) {
+        return result.cursor.start(root).prefixMatch(input, null, offset, length, result, metrics);
+    }
+
+    /**
+     * Same as {@link #prefixMatch(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of a <code>char</code> buffer.
+     * Indexes of the result refer to <code>input</code>.
+     */
+    public boolean prefixMatch(char[] input, int offset, int length, MatchResult result) {
+        return result.cursor.start(root).prefixMatch(null, input, offset, length, result, metrics);
     }
 
     /**
@@ -87,44 +150,42 @@ public class Trie extends AbstractTrie {
      * @return data node
      */
     public TrieData matchRelaxed(String input) {
-        TrieNode node = this.root;
-        TrieNode pNode;
-        String key = "";
-        TrieData result = new TrieData();
-
-        for (int i = 0; i < input.length(); i++) {
-            key += input.charAt(i);
-            if (input.charAt(i) == ' ') {
-                continue;
-            }
-            pNode = node;
-            node = node.getChild(input.charAt(i));
-            if (node == null) {
-                // symbol remove
-                if (SYMBOLS.indexOf(input.charAt(i)) > -1) {
-                    node = pNode;
-                    continue;
-                }
-                // symbol addition
-                for (int j = 0; j < SYMBOLS.length(); j++) {
-                    node = pNode.getChild(SYMBOLS.charAt(j));
-                    if (node != null) {
-                        break;
-                    }
-                }
-                if (node != null) {
-                    i--;
-                    continue;
-                }
-                break;
-            }
-            result.setKey(key);
-            result.setLength(i);
-            if (node.isTerminal()) {
-                result.setValue(node.data);
-            }
-        }
-        return result;
+        MatchResult result = new MatchResult();
+        matchRelaxed(input, result);
+        return result.toTrieData();
+    }
+
+    /**
+     * Relaxed Trie Match without allocation
+     *
+     * Like {@link #prefixMatch(CharSequence, MatchResult)}, but tolerates
+     * symbols of {@link #SYMBOLS} missing from or added to the input.
+     *
+     * @param input input to be looked up
+     * @param result reusable result
+     * @return true if a pattern was seen, otherwise false
+     */
+    public boolean matchRelaxed(CharSequence input, MatchResult result) {
+        return matchRelaxed(input, 0, input.length(), result);
+    }
+
+    /**
+     * Same as {@link #matchRelaxed(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of <code>input</code>.  Indexes
+     * of the result refer to <code>input</code>; a {@link java.nio.CharBuffer}
+     * is indexed from its position.
+     */
+    public boolean matchRelaxed(CharSequence input, int offset, int length, MatchResult result) {
+        return result.cursor.start(root).matchRelaxed(input, null, offset, length, result, metrics);
+    }
+
+    /**
+     * Same as {@link #matchRelaxed(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of a <code>char</code> buffer.
+     * Indexes of the result refer to <code>input</code>.
+     */
+    public boolean matchRelaxed(char[] input, int offset, int length, MatchResult result) {
+        return result.cursor.start(root).matchRelaxed(null, input, offset, length, result, metrics);
     }
 
     /**
@@ -133,17 +194,23 @@ public class Trie extends AbstractTrie {
      */
     @Override
     public boolean contains(String input) {
-        TrieNode node = this.root;
-        for (int i = 0; i < input.length(); i++) {
-            node = node.getChild(input.charAt(i));
-            if (node == null) {
-                return false;
-            }
-            if (node.isTerminal()) {
-                return true;
-            }
-        }
-        return false;
+        return new TrieCursor().start(root).contains(input, null, 0, input.length());
+    }
+
+    /**
+     * Same as {@link #contains(String)} on the range
+     * <code>[offset, offset + length)</code> of <code>input</code>.
+     */
+    public boolean contains(CharSequence input, int offset, int length) {
+        return new TrieCursor().start(root).contains(input, null, offset, length);
+    }
+
+    /**
+     * Same as {@link #contains(String)} on the range
+     * <code>[offset, offset + length)</code> of a <code>char</code> buffer.
+     */
+    public boolean contains(char[] input, int offset, int length) {
+        return new TrieCursor().start(root).contains(null, input, offset, length);
     }
 
     /**
@@ -153,23 +220,41 @@ public class Trie extends AbstractTrie {
      */
     @Override
     public TrieData shortestMatch(String input) {
-        TrieNode node = this.root;
-        String key = "";
-        for (int i = 0; i < input.length(); i++) {
-            key += input.charAt(i);
-            node = node.getChild(input.charAt(i));
-            if (node == null) {
-                return null;
-            }
-            if (node.isTerminal()) {
-                TrieData result = new TrieData();
-                result.setKey(key);
-                result.setValue(node.data);
-                result.setLength(i);
-                return result;
-            }
+        MatchResult result = new MatchResult();
+        if (!shortestMatch(input, result)) {
+            return null;
         }
-        return null;
+        return result.toTrieData();
+    }
+
+    /**
+     * Shortest Match without allocation
+     *
+     * @param input input to be looked up
+     * @param result reusable result, filled in on match
+     * @return true if a prefix of the input is a pattern, otherwise false
+     */
+    public boolean shortestMatch(CharSequence input, MatchResult result) {
+        return shortestMatch(input, 0, input.length(), result);
+    }
+
+    /**
+     * Same as {@link #shortestMatch(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of <code>input</code>.  Indexes
+     * of the result refer to <code>input</code>; a {@link java.nio.CharBuffer}
+     * is indexed from its position.
+     */
+    public boolean shortestMatch(CharSequence input, int offset, int length, MatchResult result) {
+        return result.cursor.start(root).shortestMatch(input, null, offset, length, result);
+    }
+
+    /**
+     * Same as {@link #shortestMatch(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of a <code>char</code> buffer.
+     * Indexes of the result refer to <code>input</code>.
+     */
+    public boolean shortestMatch(char[] input, int offset, int length, MatchResult result) {
+        return result.cursor.start(root).shortestMatch(null, input, offset, length, result);
     }
 
     /**
@@ -179,22 +264,195 @@ public class Trie extends AbstractTrie {
      */
     @Override
     public TrieData longestMatch(String input) {
+        MatchResult result = new MatchResult();
+        longestMatch(input, result);
+        return result.toTrieData();
+    }
+
+    /**
+     * Longest Match without allocation
+     *
+     * The end of the result is where the path of the input stops, its
+     * value is the one of the longest pattern seen on the way.
+     *
+     * @param input input to be looked up
+     * @param result reusable result
+     * @return true if a prefix of the input is a pattern, otherwise false
+     */
+    public boolean longestMatch(CharSequence input, MatchResult result) {
+        return longestMatch(input, 0, input.length(), result);
+    }
+
+    /**
+     * Same as {@link #longestMatch(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of <code>input</code>.  Indexes
+     * of the result refer to <code>input</code>; a {@link java.nio.CharBuffer}
+     * is indexed from its position.
+     */
+    public boolean longestMatch(CharSequence input, int offset, int length, MatchResult result) {
+        return result.cursor.start(root).longestMatch(input, null, offset, length, result);
+    }
+
+    /**
+     * Same as {@link #longestMatch(CharSequence, MatchResult)} on the range
+     * <code>[offset, offset + length)</code> of a <code>char</code> buffer.
+     * Indexes of the result refer to <code>input</code>.
+     */
+    public boolean longestMatch(char[] input, int offset, int length, MatchResult result) {
+        return result.cursor.start(root).longestMatch(null, input, offset, length, result);
+    }
+
+    /**
+     * Batch Exact Match
+     *
+     * Same as calling {@link #match(CharSequence, MatchResult)} for every
+     * query, but walks a prefix shared by several queries only once.
+     * <code>results[i]</code> receives the result of
+     * <code>queries.get(i)</code>; null entries are filled with new
+     * results, so the array can be reused across batches.
+     *
+     * @param queries inputs to be looked up, best given as a random access list
+     * @param results reusable results, at least as long as the queries
+     * @return number of matched queries
+     */
+    public int matchAll(List<? extends CharSequence> queries, MatchResult[] results) {
+        return matchAll(queries, results, null);
+    }
+
+    /**
+     * Batch Exact Match split across the threads of <code>pool</code>.
+     * Runs in the calling thread if <code>pool</code> is null, the batch
+     * is small or this trie is not frozen.
+     *
+     * @see #matchAll(List, MatchResult[])
+     */
+    public int matchAll(List<? extends CharSequence> queries, MatchResult[] results, ForkJoinPool pool) {
+        return new BatchLookup(this.root, queries, results, false).run(frozen ? pool : null);
+    }
+
+    /**
+     * Batch Prefix Trie match
+     *
+     * Same as calling {@link #prefixMatch(CharSequence, MatchResult)} for
+     * every query, but walks a prefix shared by several queries only once.
+     *
+     * @param queries inputs to be looked up, best given as a random access list
+     * @param results reusable results, at least as long as the queries
+     * @return number of queries in which a pattern was seen
+     * @see #matchAll(List, MatchResult[])
+     */
+    public int prefixMatchAll(List<? extends CharSequence> queries, MatchResult[] results) {
+        return prefixMatchAll(queries, results, null);
+    }
+
+    /**
+     * Batch Prefix Trie match split across the threads of
+     * <code>pool</code>.  Runs in the calling thread if <code>pool</code>
+     * is null, the batch is small or this trie is not frozen.
+     *
+     * @see #prefixMatchAll(List, MatchResult[])
+     */
+    public int prefixMatchAll(List<? extends CharSequence> queries, MatchResult[] results, ForkJoinPool pool) {
+        return new BatchLookup(this.root, queries, results, true).run(frozen ? pool : null);
+    }
+
+    /**
+     * Fuzzy Match
+     *
+     * Returns the keys within <code>maxEdits</code> insertions,
+     * deletions or substitutions of the query, closest first and in key
+     * order among equally close keys.
+     *
+     * @param query input to be looked up
+     * @param maxEdits largest Levenshtein distance accepted
+     * @return matched keys with their distance
+     */
+    public List<FuzzyMatch> fuzzyMatch(String query, int maxEdits) {
+        return fuzzyMatch(query, maxEdits, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Fuzzy Match, top-k
+     *
+     * Returns the <code>k</code> closest keys within <code>maxEdits</code>
+     * edits of the query, closest first and in key order among equally
+     * close keys.  Branches that can not hold a closer key are not
+     * walked, so small <code>maxEdits</code> and <code>k</code> keep the
+     * search short; a frozen trie avoids copying child lists on the way.
+     *
+     * @param query input to be looked up
+     * @param maxEdits largest Levenshtein distance accepted
+     * @param k largest number of keys returned
+     * @return matched keys with their distance
+     */
+    public List<FuzzyMatch> fuzzyMatch(String query, int maxEdits, int k) {
+        if (query == null || maxEdits < 0 || k <= 0) {
+            return new ArrayList<FuzzyMatch>();
+        }
+        return new FuzzySearch(query, maxEdits, k).run(this.root);
+    }
+
+    /**
+     * Top-k Completion
+     *
+     * Returns the <code>k</code> highest weighted keys starting with
+     * <code>prefix</code>, the prefix itself included, heaviest first and in
+     * key order among keys of the same weight.  Every node knows the highest
+     * weight below it, so branches that can not beat the keys found so far
+     * are not walked.
+     *
+     * @param prefix beginning of the keys
+     * @param k largest number of keys returned
+     * @return completed keys with their weight
+     */
+    public List<Completion> completions(String prefix, int k) {
+        if (prefix == null || k <= 0) {
+            return new ArrayList<Completion>();
+        }
+        TrieNode node = findPrefix(prefix);
+        if (node == null) {
+            return new ArrayList<Completion>();
+        }
+        return new CompletionSearch(prefix, k).run(node);
+    }
+
+    /**
+     * Returns all keys of the {@link Trie} in key order, see
+     * {@link #entries(String)}.
+     */
+    public Iterator<TrieData> entries() {
+        return entries("");
+    }
+
+    /**
+     * Lazy Prefix Enumeration
+     *
+     * Returns the keys starting with <code>prefix</code>, the prefix itself
+     * included, with their values in key order.  Keys are found one at a
+     * time while iterating, so the walk can be stopped at any point without
+     * having visited the rest of the subtree.  The trie must not be modified
+     * while iterating, unless it is frozen.
+     *
+     * @param prefix beginning of the keys
+     * @return iterator over the matched keys
+     */
+    public Iterator<TrieData> entries(String prefix) {
+        if (prefix == null) {
+            prefix = "";
+        }
+        return new TrieIterator(prefix, findPrefix(prefix));
+    }
+
+    /**
+     * Returns the node the given prefix leads to, null if no key starts
+     * with it.
+     */
+    private TrieNode findPrefix(String prefix) {
         TrieNode node = this.root;
-        String key = "";
-        TrieData result = new TrieData();
-        for (int i = 0; i < input.length(); i++) {
-            key += input.charAt(i);
-            node = node.getChild(input.charAt(i));
-            if (node == null) {
-                break;
-            }
-            result.setKey(key);
-            result.setLength(i);
-            if (node.isTerminal()) {
-                result.setValue(node.data);
-            }
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = matchChar(node, prefix, i);
         }
-        return result;
+        return node;
     }
 
     /**
@@ -202,17 +460,168 @@ public class Trie extends AbstractTrie {
      *
      * @param key key ( must be {@link String} )
      * @param val value ( any object )
-     * @return true if successed, otherwise false
+     * @return true if successed, otherwise false ( always false on a frozen trie )
      */
     @Override
     public boolean put(String key, Object val) {
-        if (key == null || key.length() == 0 || val == null) {
+        if (frozen || key == null || key.length() == 0 || val == null) {
             return false;
         }
         this.addPatternForward(key, val);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Add Key, Value pair with a weight to the {@link Trie}<br>
+     * The weight ranks the key in {@link #completions(String, int)}; new
+     * keys put without a weight weigh 0, and {@link #put(String, Object)}
+     * keeps the weight of a key already in the trie.
+     *
+     * @param key key ( must be {@link String} )
+     * @param val value ( any object )
+     * @param weight rank of the key among its completions, not NaN
+     * @return true if successed, otherwise false ( always false on a frozen trie )
+     */
+    public boolean put(String key, Object val, float weight) {
+        if (frozen || key == null || key.length() == 0 || val == null || Float.isNaN(weight)) {
+            return false;
+        }
+        this.addPatternForward(key, val, weight);
+        modCount++;
         return true;
     }
 
+    /**
+     * Remove the given key and its value from the {@link Trie}<br>
+     * Nodes no other key goes through anymore are pruned.
+     *
+     * @param key key to be removed
+     * @return removed value, null if the key was not in the trie ( always
+     * null on a frozen trie )
+     */
+    public Object remove(String key) {
+        if (frozen || key == null || key.length() == 0) {
+            return null;
+        }
+        Object removed = removePatternForward(key);
+        if (removed != null) {
+            modCount++;
+        }
+        return removed;
+    }
+
+    /**
+     * Replace the value of a key already in the {@link Trie}
+     *
+     * @param key key ( must be {@link String} )
+     * @param val new value ( any object )
+     * @return true if replaced, false if the key is not in the trie
+     */
+    public boolean replace(String key, Object val) {
+        if (frozen || key == null || key.length() == 0 || val == null) {
+            return false;
+        }
+        TrieNode node = findPattern(key);
+        if (node == null) {
+            return false;
+        }
+        node.data = val;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Returns the value of the given key, computing it and adding the pair
+     * first if the key is not in the {@link Trie} yet.  Nothing is added
+     * if the function returns null or the trie is frozen.
+     *
+     * @param key key ( must be {@link String} )
+     * @param function computes the value of a missing key
+     * @return current value, or the computed one
+     */
+    public Object computeIfAbsent(String key, Function<? super String, ?> function) {
+        if (key == null || key.length() == 0) {
+            return null;
+        }
+        TrieNode node = findPattern(key);
+        if (node != null) {
+            return node.data;
+        }
+        Object val = function.apply(key);
+        if (val != null && !frozen) {
+            this.addPatternForward(key, val);
+            modCount++;
+        }
+        return val;
+    }
+
+    /**
+     * Compact the {@link Trie}<br>
+     * Drops branches no key goes through and shrinks every child
+     * container to an exact sized array.  Call it after many removes, or
+     * before a long read-mostly phase; does nothing on a frozen trie.
+     */
+    public void compact() {
+        if (!frozen) {
+            compactNodes();
+        }
+    }
+
+    /**
+     * Freeze the {@link Trie}<br>
+     * Returns a read-only copy whose nodes are already compacted into sorted
+     * arrays, so lookups neither lock nor modify the graph and the copy can
+     * be shared between threads.  Must be called by the thread that writes
+     * to this trie; later puts on this trie do not affect the snapshot.
+     *
+     * @return frozen snapshot, or this trie if it is already frozen
+     */
+    @Override
+    public Trie freeze() {
+        if (frozen) {
+            return this;
+        }
+        Trie frozen = new Trie(compactCopy(this.root), true);
+        frozen.metrics = this.metrics;
+        return frozen;
+    }
+
+    /**
+     * Same as {@link #freeze()}, but compacts the graph of this trie in
+     * place instead of copying it.  This trie must not be used afterwards.
+     *
+     * @return frozen trie on top of the graph of this trie
+     */
+    Trie freezeInPlace() {
+        if (frozen) {
+            return this;
+        }
+        compactNodes();
+        Trie frozen = new Trie(this.root, true);
+        frozen.metrics = this.metrics;
+        return frozen;
+    }
+
+    /**
+     * Attaches lookup instrumentation to the {@link Trie}<br>
+     * <code>match</code>, <code>prefixMatch</code> and
+     * <code>matchRelaxed</code> record into the given metrics from now on;
+     * copies and snapshots made afterwards record into them too.  Works on
+     * frozen tries as well.
+     *
+     * @param metrics metrics to record into, null to disable
+     */
+    public void setMetrics(TrieMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the attached instrumentation, null if disabled.
+     */
+    public TrieMetrics getMetrics() {
+        return metrics;
+    }
 
 }
 
@@ -0,0 +1,321 @@
+package com.skplanet.nlp.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Bulk Builder for {@link Trie}<br>
+ * Collects key/value pairs and builds the trie bottom-up in one pass over
+ * the sorted keys.  Every node gets its children as an exact sized sorted
+ * array, and the child dispatch layout fitting its fan-out, as soon as
+ * its subtree is complete, so no list is walked or converted per insert.
+ * Keys given in ascending order are not sorted again.  The result is the
+ * same as calling <code>put()</code> for every pair in the given order:
+ * empty keys and null values are ignored, and the last value of a
+ * duplicate key wins.
+ * <pre>
+ *     TrieBuilder builder = new TrieBuilder();
+ *     builder.add("key", value);
+ *     ...
+ *     Trie trie = builder.build();
+ *     // or, on several cores
+ *     Trie trie = builder.build(ForkJoinPool.commonPool());
+ * </pre>
+ */
+public class TrieBuilder {
+    // key ranges smaller than this are built by one task
+    static final int SPLIT_THRESHOLD = 8192;
+
+    private String[] keys = new String[1024];
+    private Object[] values = new Object[1024];
+    private int size = 0;
+    private boolean sorted = true;
+
+    private long buildTime = -1;
+    private long peakMemory = -1;
+    private TrieMetrics metrics;
+
+    /**
+     * Add Key, Value pair to the builder
+     *
+     * @param key key ( must be {@link String} )
+     * @param val value ( any object )
+     * @return true if successed, otherwise false
+     */
+    public boolean add(String key, Object val) {
+        if (key == null || key.length() == 0 || val == null) {
+            return false;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size + (size >> 1));
+            values = Arrays.copyOf(values, keys.length);
+        }
+        if (sorted && size > 0 && keys[size - 1].compareTo(key) > 0) {
+            sorted = false;
+        }
+        keys[size] = key;
+        values[size] = val;
+        size++;
+        return true;
+    }
+
+    /**
+     * Add all entries of the given map to the builder
+     *
+     * @param entries key, value pairs
+     */
+    public void addAll(Map<String, ?> entries) {
+        for (Map.Entry<String, ?> entry : entries.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Returns the number of pairs added so far.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Builds the {@link Trie} out of the pairs added so far.
+     *
+     * @return new trie
+     */
+    public Trie build() {
+        long start = System.currentTimeMillis();
+        peakMemory = usedMemory();
+        sort(null);
+        Trie trie = new Trie(buildRange(keys, values, 0, size, 0), false);
+        buildTime = System.currentTimeMillis() - start;
+        if (metrics != null) {
+            metrics.recordBuild(buildTime);
+        }
+        return trie;
+    }
+
+    /**
+     * Builds the {@link Trie} out of the pairs added so far on the
+     * threads of <code>pool</code>.  The keys are split by their first
+     * character, the subtrie of every first character is built by its own
+     * task, and the subtries are attached under the root in order.  The
+     * result is the same as the one of {@link #build()}.
+     *
+     * @param pool pool the subtries are built on
+     * @return new trie
+     */
+    public Trie build(ForkJoinPool pool) {
+        long start = System.currentTimeMillis();
+        peakMemory = usedMemory();
+        sort(pool);
+
+        // group g holds the keys starting with the g-th first character
+        List<Integer> groups = new ArrayList<Integer>();
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || keys[i].charAt(0) != keys[i - 1].charAt(0)) {
+                groups.add(i);
+            }
+        }
+        groups.add(size);
+        int[] bounds = new int[groups.size()];
+        for (int g = 0; g < bounds.length; g++) {
+            bounds[g] = groups.get(g);
+        }
+        AbstractTrie.TrieNode[] children = new AbstractTrie.TrieNode[bounds.length - 1];
+        pool.invoke(new GroupTask(bounds, children, 0, children.length));
+
+        AbstractTrie.TrieNode root = new AbstractTrie.TrieNode('\000', false, null, children);
+        root.layout();
+        Trie trie = new Trie(root, false);
+        buildTime = System.currentTimeMillis() - start;
+        if (metrics != null) {
+            metrics.recordBuild(buildTime);
+        }
+        return trie;
+    }
+
+    /**
+     * Attaches instrumentation that records the time of every build.
+     *
+     * @param metrics metrics to record into, null to disable
+     */
+    public void setMetrics(TrieMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the time the last {@link #build()} took in milliseconds,
+     * -1 if nothing was built yet.
+     */
+    public long getBuildTime() {
+        return buildTime;
+    }
+
+    /**
+     * Returns the highest heap usage in bytes seen while the last
+     * {@link #build()} ran, sampled every few thousand keys; -1 if nothing
+     * was built yet.
+     */
+    public long getPeakMemory() {
+        return peakMemory;
+    }
+
+    /**
+     * Sorts the pairs by key.  The sort is stable, so the last of several
+     * equal keys is still the last one.
+     *
+     * @param pool pool to sort on, null to sort on the calling thread
+     */
+    private void sort(ForkJoinPool pool) {
+        if (sorted) {
+            return;
+        }
+        final Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        final String[] k = keys;
+        final Comparator<Integer> byKey = new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return k[a].compareTo(k[b]);
+            }
+        };
+        if (pool != null) {
+            // run inside the pool, the sort then forks its subtasks there
+            // instead of on the common pool
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    Arrays.parallelSort(order, byKey);
+                }
+            });
+        } else {
+            Arrays.sort(order, byKey);
+        }
+        String[] sortedKeys = new String[keys.length];
+        Object[] sortedValues = new Object[values.length];
+        for (int i = 0; i < size; i++) {
+            sortedKeys[i] = keys[order[i]];
+            sortedValues[i] = values[order[i]];
+        }
+        keys = sortedKeys;
+        values = sortedValues;
+        sorted = true;
+    }
+
+    /**
+     * Builds the node graph of the sorted keys <code>[from, to)</code>,
+     * which all share their first <code>depth</code> characters, and
+     * returns its root.  The root stands for character
+     * <code>depth - 1</code> of the keys, or is the trie root for depth 0.
+     */
+    AbstractTrie.TrieNode buildRange(String[] keys, Object[] values, int from, int to, int depth) {
+        // open nodes of the current path and their finished children, by depth
+        List<AbstractTrie.TrieNode> path = new ArrayList<AbstractTrie.TrieNode>();
+        List<List<AbstractTrie.TrieNode>> pending = new ArrayList<List<AbstractTrie.TrieNode>>();
+        AbstractTrie.TrieNode top = new AbstractTrie.TrieNode(
+                depth == 0 ? '\000' : keys[from].charAt(depth - 1), false, null, null);
+        path.add(top);
+        pending.add(new ArrayList<AbstractTrie.TrieNode>());
+
+        String prev = null;
+        int open = 0;
+        for (int i = from; i < to; i++) {
+            String key = keys[i];
+            int common = depth;
+            if (prev != null) {
+                int max = Math.min(prev.length(), key.length());
+                while (common < max && prev.charAt(common) == key.charAt(common)) {
+                    common++;
+                }
+            }
+            // close the nodes below the common prefix
+            while (open > common - depth) {
+                close(path.get(open), pending.get(open));
+                open--;
+            }
+            for (int d = common; d < key.length(); d++) {
+                AbstractTrie.TrieNode node = new AbstractTrie.TrieNode(key.charAt(d), false, null, null);
+                pending.get(open).add(node);
+                open++;
+                if (path.size() == open) {
+                    path.add(node);
+                    pending.add(new ArrayList<AbstractTrie.TrieNode>());
+                } else {
+                    path.set(open, node);
+                }
+            }
+            AbstractTrie.TrieNode last = path.get(open);
+            last.terminal = true;
+            last.data = values[i];
+            prev = key;
+
+            if ((i & 0xfff) == 0) {
+                sampleMemory();
+            }
+        }
+        while (open >= 0) {
+            close(path.get(open), pending.get(open));
+            open--;
+        }
+        sampleMemory();
+        return top;
+    }
+
+    private synchronized void sampleMemory() {
+        peakMemory = Math.max(peakMemory, usedMemory());
+    }
+
+    /**
+     * Builds the subtries of the first character groups
+     * <code>[from, to)</code>, splitting the groups in halves of about the
+     * same number of keys down to {@link #SPLIT_THRESHOLD} keys.
+     */
+    @SuppressWarnings("serial")
+    private class GroupTask extends RecursiveAction {
+        private final int[] bounds;
+        private final AbstractTrie.TrieNode[] children;
+        private final int from;
+        private final int to;
+
+        GroupTask(int[] bounds, AbstractTrie.TrieNode[] children, int from, int to) {
+            this.bounds = bounds;
+            this.children = children;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1 || bounds[to] - bounds[from] <= SPLIT_THRESHOLD) {
+                for (int g = from; g < to; g++) {
+                    children[g] = buildRange(keys, values, bounds[g], bounds[g + 1], 1);
+                }
+                return;
+            }
+            // split where half of the keys are on each side
+            int half = (bounds[from] + bounds[to]) >>> 1;
+            int mid = from + 1;
+            while (mid < to - 1 && bounds[mid + 1] <= half) {
+                mid++;
+            }
+            invokeAll(new GroupTask(bounds, children, from, mid), new GroupTask(bounds, children, mid, to));
+        }
+    }
+
+    private static void close(AbstractTrie.TrieNode node, List<AbstractTrie.TrieNode> children) {
+        node.children = children.toArray(new AbstractTrie.TrieNode[children.size()]);
+        node.layout();
+        children.clear();
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
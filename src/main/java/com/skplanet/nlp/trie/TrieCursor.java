@@ -0,0 +1,261 @@
+package com.skplanet.nlp.trie;
+
+/**
+ * Position in a character trie during one lookup<br>
+ * Implements the lookups of {@link Trie} and {@link CompiledTrie} once, so
+ * every representation has exactly the same matching semantics.  A cursor
+ * walks either the nodes of a {@link Trie} or the states of a compiled
+ * trie; it is one final class rather than one subclass per representation,
+ * so the JIT sees a single receiver at every transition of the shared
+ * lookups.  Every {@link MatchResult} keeps a cursor, which the lookups
+ * move back to the root, so they allocate nothing.<br>
+ * Inputs are given as a <code>CharSequence</code>, or as a
+ * <code>char[]</code> which is indexed directly if not null; lookups over a
+ * range <code>[offset, offset + length)</code> report indexes of the whole
+ * input.
+ */
+final class TrieCursor {
+    // nodes of a Trie if compiled is null, otherwise states of compiled
+    private AbstractTrie.TrieNode node;
+    private CompiledTrie compiled;
+    private long state;
+
+    /**
+     * Moves the cursor to the root node of a {@link Trie}.
+     */
+    TrieCursor start(AbstractTrie.TrieNode root) {
+        this.node = root;
+        this.compiled = null;
+        return this;
+    }
+
+    /**
+     * Moves the cursor to the root state of a compiled trie.
+     */
+    TrieCursor start(CompiledTrie compiled) {
+        this.node = null;
+        this.compiled = compiled;
+        this.state = compiled.rootState();
+        return this;
+    }
+
+    /**
+     * Follows the transition on <code>c</code>.
+     *
+     * @return false, staying where it is, if no pattern continues with
+     * <code>c</code>
+     */
+    private boolean next(char c) {
+        if (compiled == null) {
+            AbstractTrie.TrieNode child = node.getChild(c);
+            if (child == null) {
+                return false;
+            }
+            node = child;
+            return true;
+        }
+        long next = compiled.child(state, c);
+        if (next == CompiledTrie.NO_STATE) {
+            return false;
+        }
+        state = next;
+        return true;
+    }
+
+    /**
+     * Returns <code>true</code> if a pattern ends at the cursor.
+     */
+    private boolean isTerminal() {
+        return compiled == null ? node.isTerminal() : compiled.isTerminal(state);
+    }
+
+    /**
+     * Returns data of the pattern ending at the cursor.
+     */
+    private Object value() {
+        return compiled == null ? node.data : compiled.valueOf(state);
+    }
+
+    /**
+     * Walks the whole range, skipping spaces, and reports the last pattern
+     * seen on the way if the whole range is a path in the ds.
+     *
+     * @param metrics metrics to record into, or null
+     */
+    boolean match(CharSequence input, char[] chars, int offset, int length, MatchResult result,
+                        TrieMetrics metrics) {
+        long start = metrics == null ? 0L : System.nanoTime();
+        result.reset(input, chars, offset);
+        int limit = offset + length;
+        int end = -1;
+        Object value = null;
+        for (int i = offset; i < limit; i++) {
+            if (charAt(input, chars, i) == ' ') {
+                continue;
+            }
+            if (!next(charAt(input, chars, i))) {
+                if (metrics != null) {
+                    metrics.record(TrieMetrics.Operation.MATCH, false, i - offset, start);
+                }
+                return false;
+            }
+            if (isTerminal()) {
+                end = i + 1;
+                value = value();
+            }
+        }
+        if (metrics != null) {
+            metrics.record(TrieMetrics.Operation.MATCH, end >= 0, length, start);
+        }
+        if (end < 0) {
+            return false;
+        }
+        result.setEnd(end);
+        result.setValue(value);
+        return true;
+    }
+
+    /**
+     * Follows the range as far as it is a path in the ds, skipping spaces.
+     * The end of the result is where the path stops, its value is the one
+     * of the last pattern seen on the way.
+     *
+     * @param metrics metrics to record into, or null
+     */
+    boolean prefixMatch(CharSequence input, char[] chars, int offset, int length, MatchResult result,
+                              TrieMetrics metrics) {
+        long start = metrics == null ? 0L : System.nanoTime();
+        result.reset(input, chars, offset);
+        int limit = offset + length;
+        int i;
+        for (i = offset; i < limit; i++) {
+            if (charAt(input, chars, i) == ' ') {
+                continue;
+            }
+            if (!next(charAt(input, chars, i))) {
+                break;
+            }
+            result.setEnd(i + 1);
+            if (isTerminal()) {
+                result.setValue(value());
+            }
+        }
+        if (metrics != null) {
+            metrics.record(TrieMetrics.Operation.PREFIX_MATCH, result.getValue() != null, i - offset, start);
+        }
+        return result.getValue() != null;
+    }
+
+    /**
+     * Like {@link #prefixMatch}, but tolerates symbols of
+     * {@link Trie#SYMBOLS} missing from or added to the range.
+     *
+     * @param metrics metrics to record into, or null
+     */
+    boolean matchRelaxed(CharSequence input, char[] chars, int offset, int length, MatchResult result,
+                               TrieMetrics metrics) {
+        long start = metrics == null ? 0L : System.nanoTime();
+        result.reset(input, chars, offset);
+        int limit = offset + length;
+        int i;
+        for (i = offset; i < limit; i++) {
+            char c = charAt(input, chars, i);
+            if (c == ' ') {
+                continue;
+            }
+            if (!next(c)) {
+                // symbol remove
+                if (Trie.SYMBOLS.indexOf(c) > -1) {
+                    if (metrics != null) {
+                        metrics.symbolRemoved();
+                    }
+                    continue;
+                }
+                // symbol addition
+                boolean added = false;
+                for (int j = 0; j < Trie.SYMBOLS.length() && !added; j++) {
+                    added = next(Trie.SYMBOLS.charAt(j));
+                }
+                if (added) {
+                    if (metrics != null) {
+                        metrics.symbolAdded();
+                    }
+                    i--;
+                    continue;
+                }
+                break;
+            }
+            result.setEnd(i + 1);
+            if (isTerminal()) {
+                result.setValue(value());
+            }
+        }
+        if (metrics != null) {
+            metrics.record(TrieMetrics.Operation.MATCH_RELAXED, result.getValue() != null, i - offset, start);
+        }
+        return result.getValue() != null;
+    }
+
+    /**
+     * Returns true if a prefix of the range is a pattern.
+     */
+    boolean contains(CharSequence input, char[] chars, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (!next(charAt(input, chars, i))) {
+                return false;
+            }
+            if (isTerminal()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reports the shortest pattern the range starts with.
+     */
+    boolean shortestMatch(CharSequence input, char[] chars, int offset, int length, MatchResult result) {
+        result.reset(input, chars, offset);
+        int limit = offset + length;
+        for (int i = offset; i < limit; i++) {
+            if (!next(charAt(input, chars, i))) {
+                return false;
+            }
+            if (isTerminal()) {
+                result.setEnd(i + 1);
+                result.setValue(value());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The end of the result is where the path of the range stops, its
+     * value is the one of the longest pattern seen on the way.
+     */
+    boolean longestMatch(CharSequence input, char[] chars, int offset, int length, MatchResult result) {
+        result.reset(input, chars, offset);
+        int limit = offset + length;
+        for (int i = offset; i < limit; i++) {
+            if (!next(charAt(input, chars, i))) {
+                break;
+            }
+            result.setEnd(i + 1);
+            if (isTerminal()) {
+                result.setValue(value());
+            }
+        }
+        return result.getValue() != null;
+    }
+
+    /**
+     * Returns character <code>i</code> of <code>chars</code>, or of
+     * <code>input</code> if <code>chars</code> is null.  Lets the
+     * <code>char[]</code> lookups index the array directly instead of
+     * wrapping it.
+     */
+    private static char charAt(CharSequence input, char[] chars, int i) {
+        return chars != null ? chars[i] : input.charAt(i);
+    }
+}
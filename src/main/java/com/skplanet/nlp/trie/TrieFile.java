@@ -0,0 +1,194 @@
+package com.skplanet.nlp.trie;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only view of a binary trie file written by {@link TrieWriter}.
+ * The file is memory-mapped and every lookup reads the mapping directly
+ * with absolute gets, so a view is thread-safe and JVMs mapping the same
+ * file share its pages.
+ */
+final class TrieFile {
+    private final IntBuffer base;
+    private final IntBuffer check;
+    private final int slots;
+    private final Alphabet alphabet;
+    private final IntBuffer tokenOffsets;
+    private final CharBuffer tokenChars;
+    private final int tokens;
+    private final IntBuffer valueOffsets;
+    private final ByteBuffer valueData;
+    private final int values;
+    // values decoded so far; they are immutable, so a racy fill is safe
+    private final Object[] decoded;
+
+    private TrieFile(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < TrieWriter.HEADER_SIZE || buffer.getInt(0) != TrieWriter.MAGIC) {
+            throw new IOException("not a trie file");
+        }
+        if (buffer.getInt(4) != TrieWriter.VERSION) {
+            throw new IOException("unsupported trie file version: " + buffer.getInt(4));
+        }
+        slots = buffer.getInt(12);
+        values = buffer.getInt(16);
+        int symbols = buffer.getInt(20);
+
+        int pos = TrieWriter.HEADER_SIZE;
+        base = section(buffer, pos, slots * 4).asIntBuffer();
+        pos += slots * 4;
+        check = section(buffer, pos, slots * 4).asIntBuffer();
+        pos += slots * 4;
+        if (buffer.getInt(8) == TrieWriter.TYPE_TOKEN) {
+            tokens = symbols;
+            alphabet = null;
+            tokenOffsets = section(buffer, pos, (tokens + 1) * 4).asIntBuffer();
+            pos += (tokens + 1) * 4;
+            int chars = tokenOffsets.get(tokens);
+            tokenChars = section(buffer, pos, chars * 2).asCharBuffer();
+            pos += (chars + chars % 2) * 2;
+        } else {
+            char[] chars = new char[symbols];
+            section(buffer, pos, symbols * 2).asCharBuffer().get(chars);
+            pos += (symbols + symbols % 2) * 2;
+            alphabet = new Alphabet(chars);
+            tokens = 0;
+            tokenOffsets = null;
+            tokenChars = null;
+        }
+        valueOffsets = section(buffer, pos, (values + 1) * 4).asIntBuffer();
+        pos += (values + 1) * 4;
+        valueData = section(buffer, pos, valueOffsets.get(values));
+        for (int i = 0; i < values; i++) {
+            int from = valueOffsets.get(i);
+            int to = valueOffsets.get(i + 1);
+            if (from < 0 || to > valueData.capacity()) {
+                throw new IOException("truncated trie file");
+            }
+            ValueCodec.check(valueData, from, to);
+        }
+        decoded = new Object[values];
+    }
+
+    /**
+     * Maps <code>file</code>, which must hold a trie of the given type.
+     */
+    static TrieFile map(File file, int type) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.capacity() >= TrieWriter.HEADER_SIZE && buffer.getInt(8) != type) {
+                throw new IOException("unexpected trie file type: " + buffer.getInt(8));
+            }
+            return new TrieFile(buffer);
+        } finally {
+            // the mapping stays valid after the channel is closed
+            raf.close();
+        }
+    }
+
+    private static ByteBuffer section(ByteBuffer buffer, int pos, int length) throws IOException {
+        if (pos < 0 || length < 0 || pos + length > buffer.capacity()) {
+            throw new IOException("truncated trie file");
+        }
+        ByteBuffer view = buffer.duplicate();
+        view.position(pos);
+        view.limit(pos + length);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @see DoubleArray#child(int, int)
+     */
+    int child(int state, int code) {
+        int t = base.get(state) + code;
+        if (t > 0 && t < slots && check.get(t) == state) {
+            return t;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the code of <code>c</code> in a char trie, or 0 if no
+     * pattern contains it.
+     */
+    int code(char c) {
+        return alphabet.code(c);
+    }
+
+    /**
+     * @see DoubleArray#valueIndex(int)
+     */
+    int valueIndex(int state) {
+        int t = base.get(state);
+        if (t < 0) {
+            return -t - 1;
+        }
+        if (t > 0 && t < slots && check.get(t) == state) {
+            return -base.get(t) - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the value with the given index, decoding it on its first
+     * use only.
+     */
+    Object value(int index) {
+        Object value = decoded[index];
+        if (value == null) {
+            value = ValueCodec.decode(valueData, valueOffsets.get(index), valueOffsets.get(index + 1));
+            decoded[index] = value;
+        }
+        return value;
+    }
+
+    int size() {
+        return values;
+    }
+
+    /**
+     * Returns the id of <code>token</code>, or -1 if no pattern contains
+     * it.  Compares against the mapped vocabulary without decoding it.
+     */
+    int tokenId(String token) {
+        int min = 0;
+        int max = tokens - 1;
+        while (min <= max) {
+            int mid = (min + max) >>> 1;
+            int cmp = compareToken(mid, token);
+            if (cmp < 0)
+                min = mid + 1;
+            else if (cmp > 0)
+                max = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the token with the given id to <code>token</code>, the
+     * same way as {@link String#compareTo(String)}.
+     */
+    private int compareToken(int id, String token) {
+        int from = tokenOffsets.get(id);
+        int length = tokenOffsets.get(id + 1) - from;
+        int n = Math.min(length, token.length());
+        for (int i = 0; i < n; i++) {
+            char c = tokenChars.get(from + i);
+            if (c != token.charAt(i)) {
+                return c - token.charAt(i);
+            }
+        }
+        return length - token.length();
+    }
+}
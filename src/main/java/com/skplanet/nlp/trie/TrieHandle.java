@@ -0,0 +1,225 @@
+package com.skplanet.nlp.trie;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hot reloadable handle to a live {@link Trie}<br>
+ * Readers call {@link #get()} and look up the frozen snapshot it returns;
+ * they never block and always see one consistent version.  A reload
+ * copies the current version, applies the changes to the copy, freezes it
+ * and publishes it with one atomic swap.  Reloads are serialized, reads
+ * are not affected by them.
+ * <pre>
+ *     TrieHandle handle = new TrieHandle(trie);
+ *     ...
+ *     TrieData data = handle.get().match(input);
+ *     ...
+ *     handle.reloadAsync(deltaFile, executor);
+ * </pre>
+ * A delta file is UTF-8 text with one change per line, fields separated
+ * by a tab; empty lines and lines starting with <code>#</code> are
+ * skipped:
+ * <pre>
+ *     +	key	value
+ *     -	key
+ * </pre>
+ */
+public class TrieHandle {
+    private final AtomicReference<Trie> current;
+    private final Object reloadLock = new Object();
+
+    private volatile long version = 0;
+    private volatile long reloadCount = 0;
+    private volatile long failedReloadCount = 0;
+    private volatile long lastReloadTime = -1;
+    private volatile long totalReloadTime = 0;
+    private volatile long lastReloadedAt = -1;
+    private volatile TrieMetrics metrics;
+
+    /**
+     * Constructor
+     *
+     * @param trie first version, frozen if it is not yet
+     */
+    public TrieHandle(Trie trie) {
+        this.current = new AtomicReference<Trie>(trie.freeze());
+    }
+
+    /**
+     * Returns the current version, a frozen trie that stays valid even
+     * after newer versions are published.
+     */
+    public Trie get() {
+        return current.get();
+    }
+
+    /**
+     * Publishes the given trie as the next version.
+     *
+     * @param trie next version, frozen if it is not yet
+     * @return published snapshot
+     */
+    public Trie swap(Trie trie) {
+        Trie next = trie.freeze();
+        synchronized (reloadLock) {
+            publish(next);
+        }
+        return next;
+    }
+
+    /**
+     * Applies the changes of a delta file to a copy of the current version
+     * and publishes the result.  The current version stays in place if the
+     * reload fails for any reason; every failure is counted.
+     *
+     * @param delta delta file
+     * @return published snapshot
+     * @throws IOException if the file can not be read or a line is malformed
+     */
+    public Trie reload(File delta) throws IOException {
+        synchronized (reloadLock) {
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                // the copy is private to this reload, so it is frozen in place
+                Trie next = new Trie(current.get());
+                apply(next, delta);
+                Trie frozen = next.freezeInPlace();
+                publish(frozen);
+                success = true;
+                return frozen;
+            } finally {
+                long millis = (System.nanoTime() - start) / 1000000;
+                if (success) {
+                    reloadCount++;
+                    lastReloadTime = millis;
+                    totalReloadTime += millis;
+                } else {
+                    failedReloadCount++;
+                }
+                if (metrics != null) {
+                    metrics.recordReload(millis, success);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs {@link #reload(File)} on the given executor.
+     *
+     * @param delta delta file
+     * @param executor executor the new version is built on
+     * @return future of the published snapshot
+     */
+    public Future<Trie> reloadAsync(final File delta, ExecutorService executor) {
+        return executor.submit(new Callable<Trie>() {
+            public Trie call() throws IOException {
+                return reload(delta);
+            }
+        });
+    }
+
+    /**
+     * Attaches instrumentation to the handle<br>
+     * Every delta reload is recorded, and the current and every later
+     * published version record their lookups into the given metrics.
+     *
+     * @param metrics metrics to record into, null to disable
+     */
+    public void setMetrics(TrieMetrics metrics) {
+        synchronized (reloadLock) {
+            this.metrics = metrics;
+            current.get().setMetrics(metrics);
+        }
+    }
+
+    /**
+     * Returns the number of versions published after the first one.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the number of successful delta reloads.
+     */
+    public long getReloadCount() {
+        return reloadCount;
+    }
+
+    /**
+     * Returns the number of delta reloads that failed, whatever the cause.
+     */
+    public long getFailedReloadCount() {
+        return failedReloadCount;
+    }
+
+    /**
+     * Returns the time the last successful delta reload took in
+     * milliseconds, -1 if none happened yet.
+     */
+    public long getLastReloadTime() {
+        return lastReloadTime;
+    }
+
+    /**
+     * Returns the average time of the successful delta reloads in
+     * milliseconds, -1 if none happened yet.
+     */
+    public long getAverageReloadTime() {
+        long count = reloadCount;
+        return count == 0 ? -1 : totalReloadTime / count;
+    }
+
+    /**
+     * Returns the time the current version was published, as given by
+     * {@link System#currentTimeMillis()}, -1 for the first version.
+     */
+    public long getLastReloadedAt() {
+        return lastReloadedAt;
+    }
+
+    private void publish(Trie next) {
+        if (metrics != null) {
+            next.setMetrics(metrics);
+        }
+        current.set(next);
+        version++;
+        lastReloadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Applies the lines of <code>delta</code> to <code>trie</code>.
+     */
+    private void apply(Trie trie, File delta) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(delta), "UTF-8"));
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.length() == 0 || line.charAt(0) == '#') {
+                    continue;
+                }
+                String[] fields = line.split("\t", 3);
+                if (fields[0].equals("+") && fields.length == 3) {
+                    trie.put(fields[1], fields[2]);
+                } else if (fields[0].equals("-") && fields.length == 2) {
+                    trie.remove(fields[1]);
+                } else {
+                    throw new IOException(delta + ":" + lineNumber + ": malformed delta line");
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.skplanet.nlp.trie;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazy enumeration of the keys under a node in key order<br>
+ * Keeps the path from the start node to the current node on a stack of
+ * child arrays, so the next key is found by resuming the walk where the
+ * previous one stopped; no key is built before it is asked for.  The trie
+ * must not be modified while the iterator is in use, unless it is frozen.
+ */
+class TrieIterator implements Iterator<TrieData> {
+    // children of the nodes on the path, and the index of the child taken
+    private final List<AbstractTrie.TrieNode[]> levels = new ArrayList<AbstractTrie.TrieNode[]>();
+    private int[] taken = new int[16];
+    private char[] path;
+    private final int prefixLength;
+    private AbstractTrie.TrieNode next;
+    private int nextLength;
+
+    /**
+     * Creates an iterator over the keys at or below <code>node</code>,
+     * which is the node of <code>prefix</code>, or null if no key starts
+     * with it.
+     */
+    TrieIterator(String prefix, AbstractTrie.TrieNode node) {
+        this.prefixLength = prefix.length();
+        this.path = new char[prefixLength + 16];
+        prefix.getChars(0, prefixLength, path, 0);
+        if (node == null) {
+            return;
+        }
+        levels.add(AbstractTrie.childrenOf(node));
+        taken[0] = -1;
+        if (node.terminal && prefixLength > 0) {
+            next = node;
+            nextLength = prefixLength;
+        } else {
+            advance();
+        }
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    public TrieData next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        TrieData data = new TrieData();
+        data.setKey(new String(path, 0, nextLength));
+        data.setLength(nextLength - 1);
+        data.setValue(next.data);
+        advance();
+        return data;
+    }
+
+    /**
+     * Moves to the next terminal node in pre-order, or sets
+     * <code>next</code> to null if there is none.
+     */
+    private void advance() {
+        next = null;
+        int top = levels.size() - 1;
+        while (top >= 0) {
+            AbstractTrie.TrieNode[] children = levels.get(top);
+            int index = ++taken[top];
+            if (index == children.length) {
+                levels.remove(top--);
+                continue;
+            }
+            AbstractTrie.TrieNode child = children[index];
+            int depth = prefixLength + top;
+            if (depth == path.length) {
+                char[] longer = new char[depth << 1];
+                System.arraycopy(path, 0, longer, 0, depth);
+                path = longer;
+            }
+            path[depth] = child.nodeChar;
+            // descend before reporting, so the walk resumes below the child
+            top++;
+            levels.add(AbstractTrie.childrenOf(child));
+            if (top == taken.length) {
+                int[] longer = new int[top << 1];
+                System.arraycopy(taken, 0, longer, 0, top);
+                taken = longer;
+            }
+            taken[top] = -1;
+            if (child.terminal) {
+                next = child;
+                nextLength = depth + 1;
+                return;
+            }
+        }
+    }
+}
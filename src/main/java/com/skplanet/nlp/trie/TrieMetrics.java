@@ -0,0 +1,446 @@
+package com.skplanet.nlp.trie;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Lookup Instrumentation<br>
+ * Collects per operation counts, hits and misses, the depth the walk
+ * reached and the latency of instrumented lookups, how often the symbol
+ * branches of <code>matchRelaxed</code> fire, and build and reload
+ * timings.  Attach one to a trie, builder or handle with
+ * <code>setMetrics()</code>; without one the lookups only pay for a
+ * null check.  All counters are striped {@link LongAdder}s, so recording
+ * from many threads does not contend; the readings are not atomic
+ * snapshots.
+ * <pre>
+ *     TrieMetrics metrics = new TrieMetrics();
+ *     trie.setMetrics(metrics);
+ *     metrics.register("dictionary");
+ *     ...
+ *     long p99 = metrics.getLatencyPercentile(TrieMetrics.Operation.MATCH, 0.99);
+ * </pre>
+ */
+public class TrieMetrics implements TrieMetricsMXBean {
+    /**
+     * Instrumented lookups
+     */
+    public enum Operation {
+        MATCH,
+        PREFIX_MATCH,
+        MATCH_RELAXED,
+        TOKEN_RELAXED_MATCH
+    }
+
+    // depths from this one on share the last bucket
+    static final int MAX_DEPTH = 64;
+
+    private final OperationStats[] operations = new OperationStats[Operation.values().length];
+    private final LongAdder symbolRemoved = new LongAdder();
+    private final LongAdder symbolAdded = new LongAdder();
+    private final LongAdder builds = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder failedReloads = new LongAdder();
+    private volatile long lastBuildTime = -1;
+    private volatile long lastReloadTime = -1;
+    private ObjectName objectName;
+
+    /**
+     * Constructor
+     */
+    public TrieMetrics() {
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = new OperationStats();
+        }
+    }
+
+    /**
+     * Records one lookup.
+     *
+     * @param operation instrumented lookup
+     * @param hit true if a pattern was found
+     * @param depth input characters or tokens consumed before the walk stopped
+     * @param start value of {@link System#nanoTime()} when the lookup began
+     */
+    void record(Operation operation, boolean hit, int depth, long start) {
+        long latency = System.nanoTime() - start;
+        OperationStats stats = operations[operation.ordinal()];
+        (hit ? stats.hits : stats.misses).increment();
+        stats.depth[Math.max(0, Math.min(depth, MAX_DEPTH))].increment();
+        stats.depthSum.add(depth);
+        stats.latency.record(latency);
+    }
+
+    /**
+     * Records that <code>matchRelaxed</code> skipped a symbol of the input.
+     */
+    void symbolRemoved() {
+        symbolRemoved.increment();
+    }
+
+    /**
+     * Records that <code>matchRelaxed</code> followed a symbol missing
+     * from the input.
+     */
+    void symbolAdded() {
+        symbolAdded.increment();
+    }
+
+    /**
+     * Records one build that took <code>millis</code> milliseconds.
+     */
+    void recordBuild(long millis) {
+        builds.increment();
+        lastBuildTime = millis;
+    }
+
+    /**
+     * Records one reload that took <code>millis</code> milliseconds.
+     */
+    void recordReload(long millis, boolean success) {
+        if (!success) {
+            failedReloads.increment();
+            return;
+        }
+        reloads.increment();
+        lastReloadTime = millis;
+    }
+
+    /**
+     * Returns the number of lookups of the given operation.
+     */
+    public long getCount(Operation operation) {
+        OperationStats stats = operations[operation.ordinal()];
+        return stats.hits.sum() + stats.misses.sum();
+    }
+
+    /**
+     * Returns the number of lookups of the given operation that found a
+     * pattern.
+     */
+    public long getHitCount(Operation operation) {
+        return operations[operation.ordinal()].hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups of the given operation that found no
+     * pattern.
+     */
+    public long getMissCount(Operation operation) {
+        return operations[operation.ordinal()].misses.sum();
+    }
+
+    /**
+     * Returns the average depth reached by the given operation, 0 if it
+     * was not called yet.
+     */
+    public double getAverageDepth(Operation operation) {
+        long count = getCount(operation);
+        return count == 0 ? 0 : operations[operation.ordinal()].depthSum.sum() / (double) count;
+    }
+
+    /**
+     * Returns the number of lookups of the given operation per depth
+     * reached; the last entry counts depth {@link #MAX_DEPTH} and more.
+     */
+    public long[] getDepthHistogram(Operation operation) {
+        LongAdder[] depth = operations[operation.ordinal()].depth;
+        long[] counts = new long[depth.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = depth[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the latency in nanoseconds below which the given fraction of
+     * the lookups of the operation completed, within 1/8 of the value; 0
+     * if it was not called yet.
+     *
+     * @param operation instrumented lookup
+     * @param fraction fraction of lookups, for example 0.99
+     */
+    public long getLatencyPercentile(Operation operation, double fraction) {
+        return operations[operation.ordinal()].latency.percentile(fraction);
+    }
+
+    /**
+     * Returns the latency of the slowest lookup of the operation in
+     * nanoseconds, within 1/8 of the value.
+     */
+    public long getLatencyMax(Operation operation) {
+        return operations[operation.ordinal()].latency.percentile(1.0);
+    }
+
+    public long getLookupCount() {
+        return getHitCount() + getMissCount();
+    }
+
+    public long getHitCount() {
+        long sum = 0;
+        for (OperationStats stats : operations) {
+            sum += stats.hits.sum();
+        }
+        return sum;
+    }
+
+    public long getMissCount() {
+        long sum = 0;
+        for (OperationStats stats : operations) {
+            sum += stats.misses.sum();
+        }
+        return sum;
+    }
+
+    public double getHitRatio() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0 : hits / (double) total;
+    }
+
+    public long getMatchCount() {
+        return getCount(Operation.MATCH);
+    }
+
+    public long getPrefixMatchCount() {
+        return getCount(Operation.PREFIX_MATCH);
+    }
+
+    public long getMatchRelaxedCount() {
+        return getCount(Operation.MATCH_RELAXED);
+    }
+
+    public long getTokenRelaxedMatchCount() {
+        return getCount(Operation.TOKEN_RELAXED_MATCH);
+    }
+
+    public long getSymbolRemovedCount() {
+        return symbolRemoved.sum();
+    }
+
+    public long getSymbolAddedCount() {
+        return symbolAdded.sum();
+    }
+
+    public double getAverageDepth() {
+        long sum = 0;
+        for (OperationStats stats : operations) {
+            sum += stats.depthSum.sum();
+        }
+        long count = getLookupCount();
+        return count == 0 ? 0 : sum / (double) count;
+    }
+
+    public long getLatencyP50() {
+        return mergedLatency().percentile(0.5);
+    }
+
+    public long getLatencyP99() {
+        return mergedLatency().percentile(0.99);
+    }
+
+    public long getLatencyP999() {
+        return mergedLatency().percentile(0.999);
+    }
+
+    public long getLatencyMax() {
+        return mergedLatency().percentile(1.0);
+    }
+
+    public long getBuildCount() {
+        return builds.sum();
+    }
+
+    /**
+     * Returns the time the last build took in milliseconds, -1 if none
+     * was recorded yet.
+     */
+    public long getLastBuildTime() {
+        return lastBuildTime;
+    }
+
+    public long getReloadCount() {
+        return reloads.sum();
+    }
+
+    public long getFailedReloadCount() {
+        return failedReloads.sum();
+    }
+
+    /**
+     * Returns the time the last successful reload took in milliseconds,
+     * -1 if none was recorded yet.
+     */
+    public long getLastReloadTime() {
+        return lastReloadTime;
+    }
+
+    /**
+     * Clears all counters.  Lookups recorded while resetting may be
+     * partly kept.
+     */
+    public void reset() {
+        for (OperationStats stats : operations) {
+            stats.reset();
+        }
+        symbolRemoved.reset();
+        symbolAdded.reset();
+        builds.reset();
+        reloads.reset();
+        failedReloads.reset();
+        lastBuildTime = -1;
+        lastReloadTime = -1;
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server as
+     * <code>com.skplanet.nlp.trie:type=TrieMetrics,name=&lt;name&gt;</code>.
+     *
+     * @param name name of the instrumented dictionary
+     * @throws JMException if the name is invalid or already registered
+     */
+    public synchronized void register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("com.skplanet.nlp.trie:type=TrieMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        this.objectName = objectName;
+    }
+
+    /**
+     * Removes these metrics from the platform MBean server, if they were
+     * registered.
+     *
+     * @throws JMException if the registration is already gone
+     */
+    public synchronized void unregister() throws JMException {
+        if (objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.unregisterMBean(objectName);
+        objectName = null;
+    }
+
+    private LatencyHistogram mergedLatency() {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (OperationStats stats : operations) {
+            merged.add(stats.latency);
+        }
+        return merged;
+    }
+
+    /**
+     * Counters of one operation.
+     */
+    private static class OperationStats {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder depthSum = new LongAdder();
+        final LongAdder[] depth = new LongAdder[MAX_DEPTH + 1];
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        OperationStats() {
+            for (int i = 0; i < depth.length; i++) {
+                depth[i] = new LongAdder();
+            }
+        }
+
+        void reset() {
+            hits.reset();
+            misses.reset();
+            depthSum.reset();
+            for (LongAdder counter : depth) {
+                counter.reset();
+            }
+            latency.reset();
+        }
+    }
+
+    /**
+     * Log-linear histogram of non-negative values: every power of two is
+     * split into {@link #SUB_BUCKETS} buckets of equal width, so a value
+     * is known within 1/8 of itself over the whole <code>long</code>
+     * range, with a fixed number of counters and no allocation per record.
+     */
+    static class LatencyHistogram {
+        static final int SUB_BITS = 3;
+        static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+        private final LongAdder[] counts = new LongAdder[(64 - SUB_BITS) * SUB_BUCKETS];
+
+        LatencyHistogram() {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+
+        void record(long value) {
+            counts[bucket(Math.max(0, value))].increment();
+        }
+
+        void add(LatencyHistogram other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i].add(other.counts[i].sum());
+            }
+        }
+
+        void reset() {
+            for (LongAdder count : counts) {
+                count.reset();
+            }
+        }
+
+        /**
+         * Returns the highest value of the bucket holding the value at the
+         * given fraction of all values, 0 if nothing was recorded.
+         */
+        long percentile(double fraction) {
+            long[] snapshot = new long[counts.length];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                snapshot[i] = counts[i].sum();
+                total += snapshot[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(fraction * total));
+            long seen = 0;
+            for (int i = 0; i < snapshot.length; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return i == snapshot.length - 1 ? Long.MAX_VALUE : lowest(i + 1) - 1;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        /**
+         * Values below {@link #SUB_BUCKETS} get a bucket each; above, the
+         * bucket is given by the highest bit and the {@link #SUB_BITS}
+         * bits after it.
+         */
+        static int bucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        /**
+         * Returns the lowest value of the given bucket.
+         */
+        static long lowest(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+            long sub = bucket % SUB_BUCKETS;
+            return (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.skplanet.nlp.trie;
+
+/**
+ * JMX view of {@link TrieMetrics}<br>
+ * Counts and latencies are summed over all instrumented operations;
+ * latencies are in nanoseconds, depths in input characters or tokens.
+ */
+public interface TrieMetricsMXBean {
+    long getLookupCount();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRatio();
+
+    long getMatchCount();
+
+    long getPrefixMatchCount();
+
+    long getMatchRelaxedCount();
+
+    long getTokenRelaxedMatchCount();
+
+    long getSymbolRemovedCount();
+
+    long getSymbolAddedCount();
+
+    double getAverageDepth();
+
+    long getLatencyP50();
+
+    long getLatencyP99();
+
+    long getLatencyP999();
+
+    long getLatencyMax();
+
+    long getBuildCount();
+
+    long getLastBuildTime();
+
+    long getReloadCount();
+
+    long getFailedReloadCount();
+
+    long getLastReloadTime();
+
+    void reset();
+}
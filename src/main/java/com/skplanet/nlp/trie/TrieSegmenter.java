@@ -0,0 +1,221 @@
+package com.skplanet.nlp.trie;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Streaming longest-match segmenter<br>
+ * Segments text of any size read from a {@link Reader} or a
+ * {@link ReadableByteChannel} with maximal munch: at each position the
+ * longest pattern starting there, with the space skipping of
+ * {@link Trie#match(String)}, is taken as a token and the scan goes on
+ * after it; positions where no pattern starts are passed over.  Tokens
+ * are pulled one at a time, so the caller sets the pace, and only a
+ * window of fixed size is kept in memory.  A pattern longer than the
+ * window is not found.
+ * <pre>
+ *     TrieSegmenter segmenter = new TrieSegmenter(trie, reader);
+ *     while (segmenter.next()) {
+ *         long offset = segmenter.getOffset();
+ *         int length = segmenter.getLength();
+ *         Object value = segmenter.getValue();
+ *     }
+ *     segmenter.close();
+ * </pre>
+ * Not thread-safe; the trie must not be modified while segmenting.
+ */
+public class TrieSegmenter implements Closeable {
+    public static final int DEFAULT_WINDOW = 1 << 16;
+
+    private final AbstractTrie.TrieNode root;
+    private final Reader reader;
+    private final char[] window;
+    // window[0] is the char at offset base of the input
+    private long base = 0;
+    private int filled = 0;
+    private int pos = 0;
+    private boolean eof = false;
+
+    private long offset = -1;
+    private int length = 0;
+    private Object value = null;
+
+    /**
+     * Constructor
+     *
+     * @param trie dictionary
+     * @param reader input text
+     */
+    public TrieSegmenter(AbstractTrie trie, Reader reader) {
+        this(trie, reader, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param trie dictionary
+     * @param reader input text
+     * @param windowSize number of chars kept in memory, bounds the token length
+     */
+    public TrieSegmenter(AbstractTrie trie, Reader reader, int windowSize) {
+        this.root = trie.root;
+        this.reader = reader;
+        this.window = new char[windowSize];
+    }
+
+    /**
+     * Constructor
+     *
+     * @param trie dictionary
+     * @param channel input bytes
+     * @param charset encoding of the input bytes
+     */
+    public TrieSegmenter(AbstractTrie trie, ReadableByteChannel channel, Charset charset) {
+        this(trie, Channels.newReader(channel, charset.newDecoder(), -1), DEFAULT_WINDOW);
+    }
+
+    /**
+     * Moves on to the next token.
+     *
+     * @return true if a token was found, false at the end of the input
+     * @throws IOException if the input can not be read
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (pos == filled && !fill()) {
+                offset = -1;
+                length = 0;
+                value = null;
+                return false;
+            }
+            if (window[pos] == ' ') {
+                pos++;
+                continue;
+            }
+            int end = longestMatch();
+            if (end > 0) {
+                offset = base + pos;
+                length = end - pos;
+                pos = end;
+                return true;
+            }
+            pos++;
+        }
+    }
+
+    /**
+     * Returns the offset of the current token in chars from the start of
+     * the input, -1 if there is none.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the length of the current token in chars, spaces inside the
+     * token included.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the value of the current token.
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the text of the current token, null if there is none.
+     * Creates a new <code>String</code> on every call.
+     */
+    public String getText() {
+        if (offset < 0) {
+            return null;
+        }
+        int start = (int) (offset - base);
+        return new String(window, start, length);
+    }
+
+    /**
+     * Closes the input.
+     */
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Walks the trie from <code>pos</code>, reading more input as long as
+     * the path goes on, and keeps the value of the longest pattern.
+     *
+     * @return window index after the longest pattern, 0 if none starts here
+     */
+    private int longestMatch() throws IOException {
+        AbstractTrie.TrieNode node = root;
+        int end = 0;
+        int i = pos;
+        while (true) {
+            if (i == filled) {
+                // filling may move the window content to the front
+                int shift = pos;
+                boolean more = fill();
+                shift -= pos;
+                i -= shift;
+                if (end > 0) {
+                    end -= shift;
+                }
+                if (!more || i == filled) {
+                    break;
+                }
+            }
+            char c = window[i];
+            i++;
+            if (c == ' ') {
+                continue;
+            }
+            node = node.getChild(c);
+            if (node == null) {
+                break;
+            }
+            if (node.isTerminal()) {
+                end = i;
+                value = node.data;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Reads more input into the window, first dropping everything before
+     * <code>pos</code> if the window is full.
+     *
+     * @return false if nothing could be read
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (filled == window.length) {
+            if (pos == 0) {
+                // window full of one candidate token
+                return false;
+            }
+            System.arraycopy(window, pos, window, 0, filled - pos);
+            base += pos;
+            filled -= pos;
+            pos = 0;
+        }
+        int n = reader.read(window, filled, window.length - filled);
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        filled += n;
+        return true;
+    }
+}
@@ -0,0 +1,188 @@
+package com.skplanet.nlp.trie;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Writes a {@link Trie} or {@link TokenTrie} into the binary trie file read
+ * by {@link MappedTrie} and {@link MappedTokenTrie}.<br>
+ * <br>
+ * Layout, all numbers little-endian:
+ * <pre>
+ *   header     int magic, int version, int type,
+ *              int slots, int values, int symbols
+ *   base       int[slots]            double-array, see DoubleArray
+ *   check      int[slots]
+ *   alphabet   char[symbols]         char trie only: the characters in
+ *                                    code order, see Alphabet, padded to
+ *                                    4 bytes; code of chars[i] = i + 1
+ *   tokens     int[symbols + 1]      token trie only: char offsets of the
+ *              char[...]             sorted vocabulary, then its chars,
+ *                                    padded to 4 bytes; token id = rank
+ *   values     int[values + 1]       byte offsets into the value data
+ *              byte[...]             values, see ValueCodec
+ * </pre>
+ * A file is limited to 2GB, the size of a single mapping.
+ */
+public final class TrieWriter {
+    static final int MAGIC = 0x54524945;
+    static final int VERSION = 2;
+    static final int TYPE_CHAR = 1;
+    static final int TYPE_TOKEN = 2;
+    static final int HEADER_SIZE = 24;
+
+    private TrieWriter() {
+    }
+
+    /**
+     * Writes the given trie to <code>file</code>.
+     *
+     * @param trie trie to be written, only read
+     * @param file target file, overwritten if exists
+     * @throws IOException if writing fails or a value is neither a
+     * <code>String</code> nor a boxed primitive
+     */
+    public static void write(AbstractTrie trie, File file) throws IOException {
+        Alphabet alphabet = Alphabet.of(trie.root);
+        DoubleArray.Builder<AbstractTrie.TrieNode> builder = new Alphabet.NodeBuilder(alphabet);
+        DoubleArray array = builder.build(trie.root);
+        write(file, TYPE_CHAR, array, alphabet.chars(), null, builder.values());
+    }
+
+    /**
+     * Writes the given token trie to <code>file</code>.
+     *
+     * @param trie trie to be written, only read
+     * @param file target file, overwritten if exists
+     * @throws IOException if writing fails or a value is neither a
+     * <code>String</code> nor a boxed primitive
+     */
+    public static void write(AbstractTokenTrie trie, File file) throws IOException {
+        TokenNodeBuilder builder = new TokenNodeBuilder(trie);
+        DoubleArray array = builder.build(trie.root);
+        write(file, TYPE_TOKEN, array, null, builder.tokens, builder.values());
+    }
+
+    private static void write(File file, int type, DoubleArray array, char[] alphabet, String[] tokens,
+                              List<Object> values) throws IOException {
+        List<byte[]> encoded = new ArrayList<byte[]>(values.size());
+        for (Object value : values) {
+            encoded.add(ValueCodec.encode(value));
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        try {
+            writeInt(out, MAGIC);
+            writeInt(out, VERSION);
+            writeInt(out, type);
+            writeInt(out, array.size());
+            writeInt(out, encoded.size());
+            writeInt(out, type == TYPE_TOKEN ? tokens.length : alphabet.length);
+            for (int b : array.base) {
+                writeInt(out, b);
+            }
+            for (int c : array.check) {
+                writeInt(out, c);
+            }
+
+            if (type == TYPE_CHAR) {
+                writeChars(out, alphabet);
+            } else {
+                int offset = 0;
+                writeInt(out, offset);
+                for (String token : tokens) {
+                    offset += token.length();
+                    writeInt(out, offset);
+                }
+                StringBuilder chars = new StringBuilder(offset);
+                for (String token : tokens) {
+                    chars.append(token);
+                }
+                writeChars(out, chars.toString().toCharArray());
+            }
+
+            int offset = 0;
+            writeInt(out, offset);
+            for (byte[] value : encoded) {
+                offset += value.length;
+                writeInt(out, offset);
+            }
+            for (byte[] value : encoded) {
+                out.write(value);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void writeInt(DataOutputStream out, int v) throws IOException {
+        out.writeInt(Integer.reverseBytes(v));
+    }
+
+    /**
+     * Writes <code>chars</code>, padded to 4 bytes.
+     */
+    private static void writeChars(DataOutputStream out, char[] chars) throws IOException {
+        for (char c : chars) {
+            out.writeChar(Character.reverseBytes(c));
+        }
+        if (chars.length % 2 != 0) {
+            out.writeChar(0);
+        }
+    }
+
+    /**
+     * Reads the node graph of an {@link AbstractTokenTrie}.  Tokens are
+     * numbered by their rank in the sorted vocabulary, so the sorted
+     * children of a node come in ascending code order; token
+     * <code>id</code> is code <code>id + 1</code>.
+     */
+    static class TokenNodeBuilder extends DoubleArray.Builder<AbstractTokenTrie.TrieNode> {
+        final String[] tokens;
+        private final Map<String, Integer> ids = new HashMap<String, Integer>();
+
+        TokenNodeBuilder(AbstractTokenTrie trie) {
+            TreeSet<String> vocabulary = new TreeSet<String>();
+            List<AbstractTokenTrie.TrieNode> stack = new ArrayList<AbstractTokenTrie.TrieNode>();
+            stack.add(trie.root);
+            while (!stack.isEmpty()) {
+                for (AbstractTokenTrie.TrieNode child : AbstractTokenTrie.childrenOf(stack.remove(stack.size() - 1))) {
+                    vocabulary.add(child.nodeStr);
+                    stack.add(child);
+                }
+            }
+            tokens = vocabulary.toArray(new String[vocabulary.size()]);
+            for (int i = 0; i < tokens.length; i++) {
+                ids.put(tokens[i], i);
+            }
+        }
+
+        @Override
+        AbstractTokenTrie.TrieNode[] children(AbstractTokenTrie.TrieNode node) {
+            return AbstractTokenTrie.childrenOf(node);
+        }
+
+        @Override
+        int code(AbstractTokenTrie.TrieNode node) {
+            return ids.get(node.nodeStr) + 1;
+        }
+
+        @Override
+        boolean isTerminal(AbstractTokenTrie.TrieNode node) {
+            return node.terminal;
+        }
+
+        @Override
+        Object value(AbstractTokenTrie.TrieNode node) {
+            return node.data;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.skplanet.nlp.trie;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+/**
+ * Encodes trie values for the binary trie file.  Only strings and the
+ * boxed primitive types are supported, each with its own fixed encoding,
+ * so reading a file never instantiates a class named by the file.  Every
+ * value starts with a one byte tag.
+ */
+final class ValueCodec {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_INTEGER = 2;
+    private static final byte TAG_LONG = 3;
+    private static final byte TAG_SHORT = 4;
+    private static final byte TAG_BYTE = 5;
+    private static final byte TAG_DOUBLE = 6;
+    private static final byte TAG_FLOAT = 7;
+    private static final byte TAG_BOOLEAN = 8;
+    private static final byte TAG_CHARACTER = 9;
+
+    private ValueCodec() {
+    }
+
+    /**
+     * @throws IOException if <code>value</code> is neither a
+     * <code>String</code> nor a boxed primitive
+     */
+    static byte[] encode(Object value) throws IOException {
+        if (value instanceof String) {
+            byte[] str = ((String) value).getBytes(UTF8);
+            byte[] bytes = new byte[str.length + 1];
+            bytes[0] = TAG_STRING;
+            System.arraycopy(str, 0, bytes, 1, str.length);
+            return bytes;
+        }
+        if (value instanceof Integer) {
+            return allocate(TAG_INTEGER, 4).putInt((Integer) value).array();
+        }
+        if (value instanceof Long) {
+            return allocate(TAG_LONG, 8).putLong((Long) value).array();
+        }
+        if (value instanceof Short) {
+            return allocate(TAG_SHORT, 2).putShort((Short) value).array();
+        }
+        if (value instanceof Byte) {
+            return allocate(TAG_BYTE, 1).put((Byte) value).array();
+        }
+        if (value instanceof Double) {
+            return allocate(TAG_DOUBLE, 8).putDouble((Double) value).array();
+        }
+        if (value instanceof Float) {
+            return allocate(TAG_FLOAT, 4).putFloat((Float) value).array();
+        }
+        if (value instanceof Boolean) {
+            return allocate(TAG_BOOLEAN, 1).put((byte) ((Boolean) value ? 1 : 0)).array();
+        }
+        if (value instanceof Character) {
+            return allocate(TAG_CHARACTER, 2).putChar((Character) value).array();
+        }
+        throw new IOException("unsupported value type: " + value.getClass().getName());
+    }
+
+    private static ByteBuffer allocate(byte tag, int size) {
+        return ByteBuffer.allocate(size + 1).order(ByteOrder.LITTLE_ENDIAN).put(tag);
+    }
+
+    /**
+     * Checks that <code>data[from, to)</code> holds a value of a known
+     * type and of the size of that type, so that {@link #decode} cannot
+     * fail on it later.
+     *
+     * @throws IOException if the value is malformed
+     */
+    static void check(ByteBuffer data, int from, int to) throws IOException {
+        if (from >= to) {
+            throw new IOException("empty value at " + from);
+        }
+        int size;
+        switch (data.get(from)) {
+            case TAG_STRING:
+                return;
+            case TAG_BYTE:
+            case TAG_BOOLEAN:
+                size = 1;
+                break;
+            case TAG_SHORT:
+            case TAG_CHARACTER:
+                size = 2;
+                break;
+            case TAG_INTEGER:
+            case TAG_FLOAT:
+                size = 4;
+                break;
+            case TAG_LONG:
+            case TAG_DOUBLE:
+                size = 8;
+                break;
+            default:
+                throw new IOException("unsupported value tag " + data.get(from) + " at " + from);
+        }
+        if (to - from != size + 1) {
+            throw new IOException("value of tag " + data.get(from) + " at " + from + " has " + (to - from - 1)
+                    + " bytes instead of " + size);
+        }
+    }
+
+    /**
+     * Decodes the value stored in <code>data[from, to)</code>.  The
+     * position of <code>data</code> is not touched, so it can be shared.
+     *
+     * @throws IllegalStateException if the value has an unknown tag, which
+     * {@link #check} rejects beforehand
+     */
+    static Object decode(ByteBuffer data, int from, int to) {
+        switch (data.get(from)) {
+            case TAG_STRING:
+                return decodeString(data, from + 1, to);
+            case TAG_INTEGER:
+                return data.getInt(from + 1);
+            case TAG_LONG:
+                return data.getLong(from + 1);
+            case TAG_SHORT:
+                return data.getShort(from + 1);
+            case TAG_BYTE:
+                return data.get(from + 1);
+            case TAG_DOUBLE:
+                return data.getDouble(from + 1);
+            case TAG_FLOAT:
+                return data.getFloat(from + 1);
+            case TAG_BOOLEAN:
+                return data.get(from + 1) != 0;
+            case TAG_CHARACTER:
+                return data.getChar(from + 1);
+            default:
+                throw new IllegalStateException("unsupported value tag " + data.get(from) + " at " + from);
+        }
+    }
+
+    private static String decodeString(ByteBuffer data, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        ByteBuffer view = data.duplicate();
+        view.position(from);
+        view.get(bytes);
+        return new String(bytes, UTF8);
+    }
+}
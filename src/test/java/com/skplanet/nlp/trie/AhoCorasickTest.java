@@ -0,0 +1,107 @@
+package com.skplanet.nlp.trie;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class AhoCorasickTest extends TestCase {
+
+    public void testCharacterAutomaton() {
+        Random random = new Random(5);
+        for (int round = 0; round < 100; round++) {
+            Trie trie = new Trie();
+            List<String> patterns = new ArrayList<String>();
+            int size = 1 + random.nextInt(20);
+            for (int i = 0; i < size; i++) {
+                String pattern = randomString(random, 1, 4);
+                trie.put(pattern, pattern);
+                patterns.add(pattern);
+            }
+            AhoCorasick automaton = new AhoCorasick(trie);
+            for (int q = 0; q < 10; q++) {
+                String text = randomString(random, 0, 20);
+                List<String> expected = new ArrayList<String>();
+                for (int start = 0; start < text.length(); start++) {
+                    for (int end = start + 1; end <= text.length(); end++) {
+                        if (patterns.contains(text.substring(start, end))) {
+                            expected.add(start + "-" + end);
+                        }
+                    }
+                }
+                final List<String> hits = new ArrayList<String>();
+                automaton.scan(text, new MatchHandler() {
+                    public boolean onMatch(int start, int end, Object value) {
+                        hits.add(start + "-" + end);
+                        return true;
+                    }
+                });
+                Collections.sort(expected);
+                Collections.sort(hits);
+                assertEquals(text, expected, hits);
+            }
+        }
+    }
+
+    public void testTokenAutomaton() {
+        Random random = new Random(9);
+        for (int round = 0; round < 100; round++) {
+            TokenTrie trie = new TokenTrie();
+            List<List<String>> patterns = new ArrayList<List<String>>();
+            int size = 1 + random.nextInt(20);
+            for (int i = 0; i < size; i++) {
+                String[] pattern = randomString(random, 1, 4).split("");
+                trie.put(pattern, Arrays.toString(pattern));
+                patterns.add(Arrays.asList(pattern));
+            }
+            TokenAhoCorasick automaton = new TokenAhoCorasick(trie);
+            for (int q = 0; q < 10; q++) {
+                String[] input = randomString(random, 1, 20).split("");
+                List<String> expected = new ArrayList<String>();
+                for (int start = 0; start < input.length; start++) {
+                    for (int end = start + 1; end <= input.length; end++) {
+                        if (patterns.contains(Arrays.asList(input).subList(start, end))) {
+                            expected.add(start + "-" + end);
+                        }
+                    }
+                }
+                int[] spans = new int[3 * input.length * 4];
+                int count = automaton.scan(input, MatchPolicy.OVERLAPPING, spans);
+                List<String> hits = new ArrayList<String>();
+                for (int i = 0; i < count; i++) {
+                    int start = spans[3 * i];
+                    int end = spans[3 * i + 1];
+                    assertEquals(Arrays.toString(Arrays.copyOfRange(input, start, end)),
+                            automaton.getValue(spans[3 * i + 2]));
+                    hits.add(start + "-" + end);
+                }
+                Collections.sort(expected);
+                Collections.sort(hits);
+                assertEquals(Arrays.toString(input), expected, hits);
+            }
+        }
+    }
+
+    public void testNullTokens() {
+        TokenTrie trie = new TokenTrie();
+        trie.put(new String[]{"a", "b"}, "1");
+        TokenAhoCorasick automaton = new TokenAhoCorasick(trie);
+        String[] input = {"a", null, "b", "a", "b", null};
+        int[] spans = new int[3 * input.length];
+        assertEquals(1, automaton.scan(input, MatchPolicy.OVERLAPPING, spans));
+        assertEquals(3, spans[0]);
+        assertEquals(5, spans[1]);
+    }
+
+    private static String randomString(Random random, int min, int max) {
+        int length = min + random.nextInt(max - min + 1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(3)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.skplanet.nlp.trie;
+
+import junit.framework.TestCase;
+
+public class CachedTrieTest extends TestCase {
+
+    public void testCachedResults() {
+        Trie trie = new Trie();
+        trie.put("abc", "1");
+        CachedTrie cached = new CachedTrie(trie, 100);
+        for (int i = 0; i < 3; i++) {
+            assertEquals("1", cached.match("abc").getValue());
+            assertNull(cached.match("abd"));
+            assertEquals("1", cached.prefixMatch("abcd").getValue());
+            assertEquals("1", cached.matchRelaxed("a-bc").getValue());
+        }
+        assertTrue(cached.getHitCount() > 0);
+    }
+
+    public void testSeesChanges() {
+        Trie trie = new Trie();
+        CachedTrie cached = new CachedTrie(trie, 100);
+        for (int i = 0; i < 3; i++) {
+            assertNull(cached.match("abc"));
+        }
+        trie.put("abc", "1");
+        assertEquals("1", cached.match("abc").getValue());
+    }
+
+    public void testCachedMisses() {
+        // a trie answering every lookup with null
+        Trie trie = new Trie() {
+            @Override
+            public TrieData prefixMatch(String input) {
+                return null;
+            }
+
+            @Override
+            public TrieData matchRelaxed(String input) {
+                return null;
+            }
+        };
+        CachedTrie cached = new CachedTrie(trie, 100);
+        for (int i = 0; i < 3; i++) {
+            assertNull(cached.match("a"));
+            assertNull(cached.prefixMatch("a"));
+            assertNull(cached.matchRelaxed("a"));
+        }
+        assertTrue(cached.getHitCount() > 0);
+    }
+}
@@ -0,0 +1,202 @@
+package com.skplanet.nlp.trie;
+
+import junit.framework.TestCase;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class CompiledTrieTest extends TestCase {
+    // includes Hangul far apart, so codes of the double array are remapped
+    private static final String ALPHABET = "abc가힣";
+    // characters of queries only: a space is skipped by most lookups
+    private static final String NOISE = " z각";
+
+    public void testUnknownCharacters() {
+        Trie trie = new Trie();
+        trie.put("가각", "1");
+        trie.put("ab", "2");
+        for (CompiledTrie compiled : compile(trie)) {
+            assertNotNull(compiled.match("가각"));
+            assertNull(compiled.match("가갂"));
+            assertNull(compiled.match("\uffff"));
+            assertFalse(compiled.contains("a\u0000"));
+            assertEquals("2", compiled.prefixMatch("ab힣").getValue());
+        }
+    }
+
+    public void testEmptyTrie() {
+        Trie trie = new Trie();
+        for (CompiledTrie compiled : compile(trie)) {
+            assertNull(compiled.match("a"));
+            assertEquals(describe(trie.longestMatch("a")), describe(compiled.longestMatch("a")));
+            assertFalse(compiled.contains(""));
+        }
+    }
+
+    public void testSameDoubleArray() {
+        Trie trie = new Trie();
+        for (char c = '가'; c < '가' + 2000; c += 7) {
+            trie.put(c + "가" + c, "1");
+            trie.put("a" + c, "2");
+        }
+        assertEquals(new DoubleArrayTrie(trie).getArraySize(), new OffHeapTrie(trie).getArraySize());
+    }
+
+    public void testLargeTrie() {
+        // thousands of keys with distinct values, so every internal array
+        // of the compiled tries has to grow several times while building
+        Random random = new Random(13);
+        Trie trie = new Trie();
+        List<String> keys = new ArrayList<String>();
+        for (int i = 0; i < 5000; i++) {
+            String key = randomString(random, ALPHABET + "defghij", 1, 12) + i;
+            trie.put(key, i);
+            keys.add(key);
+        }
+        for (CompiledTrie c : compile(trie)) {
+            for (int i = 0; i < keys.size(); i++) {
+                String key = keys.get(i);
+                String name = c.getClass().getSimpleName() + " " + key;
+                assertEquals(name, describe(trie.match(key)), describe(c.match(key)));
+                assertEquals(name, describe(trie.longestMatch(key + "x")), describe(c.longestMatch(key + "x")));
+            }
+        }
+    }
+
+    public void testAgainstTrie() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            Trie trie = new Trie();
+            int size = random.nextInt(200);
+            for (int i = 0; i < size; i++) {
+                // few distinct values, so the DAWG shares suffixes
+                trie.put(randomString(random, ALPHABET, 1, 6), random.nextInt(3));
+            }
+            List<CompiledTrie> compiled = compile(trie);
+            for (int q = 0; q < 200; q++) {
+                String query = randomString(random, ALPHABET + NOISE, 0, 8);
+                for (CompiledTrie c : compiled) {
+                    String name = c.getClass().getSimpleName() + " " + query;
+                    assertEquals(name, describe(trie.match(query)), describe(c.match(query)));
+                    assertEquals(name, describe(trie.prefixMatch(query)), describe(c.prefixMatch(query)));
+                    assertEquals(name, describe(trie.matchRelaxed(query)), describe(c.matchRelaxed(query)));
+                    assertEquals(name, describe(trie.shortestMatch(query)), describe(c.shortestMatch(query)));
+                    assertEquals(name, describe(trie.longestMatch(query)), describe(c.longestMatch(query)));
+                    assertEquals(name, trie.contains(query), c.contains(query));
+                }
+                assertCharArrayLookups(trie, compiled, query);
+                assertCharBufferLookups(trie, compiled, query);
+            }
+        }
+    }
+
+    /**
+     * The <code>char[]</code> overloads must agree with the
+     * <code>CharSequence</code> ones on the same range.
+     */
+    private static void assertCharArrayLookups(Trie trie, List<CompiledTrie> compiled, String query) {
+        String padded = "x" + query + "y";
+        char[] chars = padded.toCharArray();
+        int n = query.length();
+        MatchResult expected = new MatchResult();
+        MatchResult actual = new MatchResult();
+
+        assertEquals(trie.match(padded, 1, n, expected), trie.match(chars, 1, n, actual));
+        assertEquals(describe(expected), describe(actual));
+        assertEquals(trie.prefixMatch(padded, 1, n, expected), trie.prefixMatch(chars, 1, n, actual));
+        assertEquals(describe(expected), describe(actual));
+        assertEquals(trie.matchRelaxed(padded, 1, n, expected), trie.matchRelaxed(chars, 1, n, actual));
+        assertEquals(describe(expected), describe(actual));
+        assertEquals(trie.shortestMatch(padded, 1, n, expected), trie.shortestMatch(chars, 1, n, actual));
+        assertEquals(describe(expected), describe(actual));
+        assertEquals(trie.longestMatch(padded, 1, n, expected), trie.longestMatch(chars, 1, n, actual));
+        assertEquals(describe(expected), describe(actual));
+        assertEquals(trie.contains(padded, 1, n), trie.contains(chars, 1, n));
+
+        for (CompiledTrie c : compiled) {
+            String name = c.getClass().getSimpleName() + " " + query;
+            trie.match(padded, 1, n, expected);
+            c.match(chars, 1, n, actual);
+            assertEquals(name, describe(expected), describe(actual));
+            trie.prefixMatch(padded, 1, n, expected);
+            c.prefixMatch(chars, 1, n, actual);
+            assertEquals(name, describe(expected), describe(actual));
+            trie.matchRelaxed(padded, 1, n, expected);
+            c.matchRelaxed(chars, 1, n, actual);
+            assertEquals(name, describe(expected), describe(actual));
+            trie.shortestMatch(padded, 1, n, expected);
+            c.shortestMatch(chars, 1, n, actual);
+            assertEquals(name, describe(expected), describe(actual));
+            trie.longestMatch(padded, 1, n, expected);
+            c.longestMatch(chars, 1, n, actual);
+            assertEquals(name, describe(expected), describe(actual));
+            assertEquals(name, trie.contains(padded, 1, n), c.contains(chars, 1, n));
+        }
+    }
+
+    /**
+     * A <code>CharBuffer</code> is indexed from its position, so a lookup
+     * on the buffer must agree with one on the remaining characters.  One
+     * result is shared by all lookups, as by a tokenizer thread.
+     */
+    private static void assertCharBufferLookups(Trie trie, List<CompiledTrie> compiled, String query) {
+        CharBuffer buffer = CharBuffer.wrap(("x" + query + "y").toCharArray());
+        buffer.position(1);
+        int n = query.length();
+        MatchResult result = new MatchResult();
+
+        trie.match(query, result);
+        String match = describe(result);
+        trie.prefixMatch(query, result);
+        String prefix = describe(result);
+        trie.longestMatch(query, result);
+        String longest = describe(result);
+        trie.match(buffer, 0, n, result);
+        assertEquals(query, match, describe(result));
+        trie.prefixMatch(buffer, 0, n, result);
+        assertEquals(query, prefix, describe(result));
+        trie.longestMatch(buffer, 0, n, result);
+        assertEquals(query, longest, describe(result));
+        for (CompiledTrie c : compiled) {
+            String name = c.getClass().getSimpleName() + " " + query;
+            c.match(buffer, 0, n, result);
+            assertEquals(name, match, describe(result));
+            c.prefixMatch(buffer, 0, n, result);
+            assertEquals(name, prefix, describe(result));
+            c.longestMatch(buffer, 0, n, result);
+            assertEquals(name, longest, describe(result));
+        }
+        assertEquals(1, buffer.position());
+    }
+
+    private static List<CompiledTrie> compile(Trie trie) {
+        List<CompiledTrie> compiled = new ArrayList<CompiledTrie>();
+        compiled.add(new DoubleArrayTrie(trie));
+        compiled.add(new DawgTrie(trie));
+        compiled.add(new RadixTrie(trie));
+        compiled.add(new OffHeapTrie(trie));
+        return compiled;
+    }
+
+    private static String randomString(Random random, String alphabet, int min, int max) {
+        int length = min + random.nextInt(max - min + 1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    private static String describe(TrieData data) {
+        if (data == null) {
+            return "null";
+        }
+        return data.getKey() + "/" + data.getLength() + "/" + data.getValue();
+    }
+
+    private static String describe(MatchResult result) {
+        return result.getStart() + "-" + result.getEnd() + "/" + result.getKey() + "/" + result.getValue();
+    }
+}
@@ -0,0 +1,137 @@
+package com.skplanet.nlp.trie;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class FuzzyMatchTest extends TestCase {
+
+    public void testEmptyQuery() {
+        Trie trie = new Trie();
+        trie.put("a", "1");
+        trie.put("ab", "2");
+
+        List<FuzzyMatch> matches = trie.fuzzyMatch("", 1);
+        assertEquals(1, matches.size());
+        assertEquals("a", matches.get(0).getKey());
+        assertEquals(1, matches.get(0).getDistance());
+
+        assertEquals(2, trie.fuzzyMatch("", 2).size());
+        assertEquals(0, trie.fuzzyMatch("", 0).size());
+    }
+
+    public void testExactKeyComesFirst() {
+        Trie trie = new Trie();
+        trie.put("cat", "1");
+        trie.put("cart", "2");
+        trie.put("cut", "3");
+        trie.put("dog", "4");
+
+        List<FuzzyMatch> matches = trie.fuzzyMatch("cat", 1);
+        assertEquals(3, matches.size());
+        assertEquals("cat", matches.get(0).getKey());
+        assertEquals(0, matches.get(0).getDistance());
+        assertEquals("1", matches.get(0).getValue());
+        assertEquals("cart", matches.get(1).getKey());
+        assertEquals("cut", matches.get(2).getKey());
+    }
+
+    public void testTopK() {
+        Trie trie = new Trie();
+        trie.put("cat", "1");
+        trie.put("cart", "2");
+        trie.put("cut", "3");
+
+        List<FuzzyMatch> matches = trie.fuzzyMatch("cat", 2, 2);
+        assertEquals(2, matches.size());
+        assertEquals("cat", matches.get(0).getKey());
+        assertEquals("cart", matches.get(1).getKey());
+    }
+
+    public void testInvalidArguments() {
+        Trie trie = new Trie();
+        trie.put("a", "1");
+        assertTrue(trie.fuzzyMatch(null, 1).isEmpty());
+        assertTrue(trie.fuzzyMatch("a", -1).isEmpty());
+        assertTrue(trie.fuzzyMatch("a", 1, 0).isEmpty());
+    }
+
+    public void testAgainstBruteForce() {
+        Random random = new Random(11);
+        for (int round = 0; round < 100; round++) {
+            Trie trie = new Trie();
+            TreeMap<String, Object> keys = new TreeMap<String, Object>();
+            int size = random.nextInt(50);
+            for (int i = 0; i < size; i++) {
+                String key = randomString(random, 1, 6);
+                trie.put(key, key);
+                keys.put(key, key);
+            }
+            Trie frozen = trie.freeze();
+            for (int q = 0; q < 20; q++) {
+                String query = randomString(random, 0, 6);
+                int maxEdits = random.nextInt(3);
+                int k = 1 + random.nextInt(5);
+                List<String> all = bruteForce(keys, query, maxEdits, Integer.MAX_VALUE);
+                List<String> top = bruteForce(keys, query, maxEdits, k);
+                assertEquals(query, all, keysOf(trie.fuzzyMatch(query, maxEdits)));
+                assertEquals(query, all, keysOf(frozen.fuzzyMatch(query, maxEdits)));
+                assertEquals(query, top, keysOf(trie.fuzzyMatch(query, maxEdits, k)));
+            }
+        }
+    }
+
+    private static String randomString(Random random, int min, int max) {
+        int length = min + random.nextInt(max - min + 1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(3)));
+        }
+        return sb.toString();
+    }
+
+    private static List<String> keysOf(List<FuzzyMatch> matches) {
+        List<String> keys = new ArrayList<String>();
+        for (FuzzyMatch match : matches) {
+            assertEquals(match.getKey(), match.getValue());
+            keys.add(match.getDistance() + ":" + match.getKey());
+        }
+        return keys;
+    }
+
+    private static List<String> bruteForce(TreeMap<String, Object> keys, String query, int maxEdits, int k) {
+        List<String> result = new ArrayList<String>();
+        for (String key : keys.keySet()) {
+            int distance = distance(key, query);
+            if (distance <= maxEdits) {
+                result.add(distance + ":" + key);
+            }
+        }
+        // distances are single digits, so the strings sort by distance, then key
+        Collections.sort(result);
+        return result.size() > k ? result.subList(0, k) : result;
+    }
+
+    private static int distance(String a, String b) {
+        int[] prev = new int[b.length() + 1];
+        int[] row = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            row[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                row[j] = Math.min(Math.min(prev[j] + 1, row[j - 1] + 1), prev[j - 1] + cost);
+            }
+            int[] swap = prev;
+            prev = row;
+            row = swap;
+        }
+        return prev[b.length()];
+    }
+}
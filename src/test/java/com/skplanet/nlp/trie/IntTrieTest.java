@@ -0,0 +1,88 @@
+package com.skplanet.nlp.trie;
+
+import junit.framework.TestCase;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+public class IntTrieTest extends TestCase {
+
+    public void testLookup() {
+        Trie trie = new Trie();
+        trie.put("abc", 1);
+        trie.put("abd", Long.valueOf(-2));
+        trie.put("b", 3.0);
+        IntTrie ints = new IntTrie(trie, -1);
+        assertEquals(1, ints.getInt("abc"));
+        assertEquals(-2, ints.getInt("abd"));
+        assertEquals(3, ints.getInt("b"));
+        assertEquals(-1, ints.getInt("ab"));
+        assertEquals(-1, ints.getInt("x"));
+    }
+
+    public void testRejectsValuesOutOfIntRange() {
+        assertRejected(new IntTrieFactory(), 5000000000L);
+        assertRejected(new IntTrieFactory(), (long) Integer.MIN_VALUE - 1);
+        assertRejected(new IntTrieFactory(), new BigInteger("5000000000"));
+    }
+
+    public void testRejectsFractions() {
+        assertRejected(new IntTrieFactory(), 3.9);
+        assertRejected(new IntTrieFactory(), 0.5f);
+        assertRejected(new LongTrieFactory(), 3.9);
+        assertRejected(new LongTrieFactory(), new BigDecimal("1.5"));
+        assertRejected(new LongTrieFactory(), Double.NaN);
+    }
+
+    public void testRejectsValuesOutOfLongRange() {
+        assertRejected(new LongTrieFactory(), 1e30);
+        assertRejected(new LongTrieFactory(), 0x1p63);
+        assertRejected(new LongTrieFactory(), new BigInteger("9223372036854775808"));
+    }
+
+    public void testRejectsNonNumbers() {
+        assertRejected(new IntTrieFactory(), "1");
+        assertRejected(new LongTrieFactory(), "1");
+    }
+
+    public void testLongLookup() {
+        Trie trie = new Trie();
+        trie.put("big", 5000000000L);
+        trie.put("min", Long.MIN_VALUE);
+        trie.put("whole", 1e15);
+        trie.put("exact", new BigDecimal("7.000"));
+        LongTrie longs = new LongTrie(trie, 0L);
+        assertEquals(5000000000L, longs.getLong("big"));
+        assertEquals(Long.MIN_VALUE, longs.getLong("min"));
+        assertEquals(1000000000000000L, longs.getLong("whole"));
+        assertEquals(7L, longs.getLong("exact"));
+        assertEquals(0L, longs.getLong("none"));
+    }
+
+    private static void assertRejected(Factory factory, Object value) {
+        Trie trie = new Trie();
+        trie.put("key", value);
+        try {
+            factory.create(trie);
+            fail("accepted " + value);
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private interface Factory {
+        void create(Trie trie);
+    }
+
+    private static class IntTrieFactory implements Factory {
+        public void create(Trie trie) {
+            new IntTrie(trie, -1);
+        }
+    }
+
+    private static class LongTrieFactory implements Factory {
+        public void create(Trie trie) {
+            new LongTrie(trie, -1L);
+        }
+    }
+}
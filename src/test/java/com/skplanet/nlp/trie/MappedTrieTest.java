@@ -0,0 +1,142 @@
+package com.skplanet.nlp.trie;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class MappedTrieTest extends TestCase {
+    private File file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = File.createTempFile("trie", ".bin");
+    }
+
+    @Override
+    protected void tearDown() {
+        file.delete();
+    }
+
+    public void testValueTypes() throws IOException {
+        Object[] values = {"문자열", 1, -2L, (short) 3, (byte) 4, 5.5, 6.5f, true, 'c', ""};
+        Trie trie = new Trie();
+        for (int i = 0; i < values.length; i++) {
+            trie.put("key" + i, values[i]);
+        }
+        TrieWriter.write(trie, file);
+        MappedTrie mapped = MappedTrie.open(file);
+        assertEquals(values.length, mapped.size());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], mapped.match("key" + i).getValue());
+        }
+    }
+
+    public void testDecodesOnce() throws IOException {
+        Trie trie = new Trie();
+        trie.put("a", "value");
+        TrieWriter.write(trie, file);
+        MappedTrie mapped = MappedTrie.open(file);
+        assertSame(mapped.match("a").getValue(), mapped.match("a").getValue());
+    }
+
+    public void testRejectsOtherTypes() {
+        Trie trie = new Trie();
+        trie.put("a", new ArrayList<String>());
+        try {
+            TrieWriter.write(trie, file);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("java.util.ArrayList"));
+        }
+    }
+
+    public void testAlphabet() throws IOException {
+        Trie trie = new Trie();
+        trie.put("가각", "1");
+        trie.put("힣a", "2");
+        TrieWriter.write(trie, file);
+        MappedTrie mapped = MappedTrie.open(file);
+        assertEquals("1", mapped.match("가각").getValue());
+        assertEquals("2", mapped.prefixMatch("힣ab").getValue());
+        assertNull(mapped.match("가갂"));
+        assertFalse(mapped.contains("\u0000"));
+    }
+
+    public void testRejectsUnknownTags() throws IOException {
+        Trie trie = new Trie();
+        trie.put("a", 1);
+        TrieWriter.write(trie, file);
+        // the file ends with the only value: a tag and four bytes
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(raf.length() - 5);
+            raf.write(99);
+        } finally {
+            raf.close();
+        }
+        try {
+            MappedTrie.open(file);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("99"));
+        }
+    }
+
+    public void testTokenTrie() throws IOException {
+        TokenTrie trie = new TokenTrie();
+        trie.put(new String[]{"a", "b"}, 7L);
+        TrieWriter.write(trie, file);
+        MappedTokenTrie mapped = MappedTokenTrie.open(file);
+        assertEquals(7L, mapped.match(new String[]{"a", "b"}));
+        assertNull(mapped.match(new String[]{"a"}));
+    }
+
+    public void testTokenLookupsAgainstTokenTrie() throws IOException {
+        Random random = new Random(3);
+        TokenTrie trie = new TokenTrie();
+        for (int i = 0; i < 200; i++) {
+            trie.put(randomTokens(random), i);
+        }
+        TrieWriter.write(trie, file);
+        MappedTokenTrie mapped = MappedTokenTrie.open(file);
+        Set<Integer> none = Collections.emptySet();
+        for (int q = 0; q < 500; q++) {
+            String[] input = randomTokens(random);
+            int offset = random.nextInt(input.length);
+            Set<Integer> skip = new HashSet<Integer>();
+            skip.add(random.nextInt(input.length));
+            String name = Arrays.toString(input) + " " + offset + " " + skip;
+            assertEquals(name, trie.match(input), mapped.match(input));
+            assertEquals(name, trie.match(input, offset), mapped.match(input, offset));
+            assertEquals(name, trie.prefixMatch(input, offset), mapped.prefixMatch(input, offset));
+            assertEquals(name, trie.contains(input), mapped.contains(input));
+            assertEquals(name, trie.shortestMatch(input), mapped.shortestMatch(input));
+            assertEquals(name, trie.shortestMatch(input, offset), mapped.shortestMatch(input, offset));
+            assertEquals(name, trie.longestMatch(input), mapped.longestMatch(input));
+            assertEquals(name, trie.longestMatch(input, offset), mapped.longestMatch(input, offset));
+            assertEquals(name, trie.RelaxedMatch(input, skip), mapped.RelaxedMatch(input, skip));
+            assertEquals(name, trie.RelaxedMatch(input, none), mapped.RelaxedMatch(input, none));
+            assertEquals(name, trie.RelaxedMatch(input, offset, skip), mapped.RelaxedMatch(input, offset, skip));
+            assertEquals(name, trie.prefixRelaxedMatch(input, offset, skip),
+                    mapped.prefixRelaxedMatch(input, offset, skip));
+        }
+        assertNull(mapped.longestMatch(new String[]{null, "a"}));
+        assertEquals(0, mapped.prefixMatch(new String[]{null}));
+    }
+
+    private static String[] randomTokens(Random random) {
+        String[] tokens = new String[1 + random.nextInt(4)];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = String.valueOf((char) ('a' + random.nextInt(3)));
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,103 @@
+package com.skplanet.nlp.trie;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class TokenTrieTest extends TestCase {
+    private static final String[] TOKENS = {"a", "b", "c", "d"};
+
+    public void testMatchesPerStart() {
+        TokenTrie trie = new TokenTrie();
+        trie.put(new String[]{"a"}, "1");
+        trie.put(new String[]{"a", "b", "c"}, "2");
+        trie.put(new String[]{"b", "c"}, "3");
+        String[] input = {"a", "b", "c", "d"};
+        int[] ends = new int[4];
+        Object[] values = new Object[4];
+
+        assertEquals(2, trie.shortestMatches(input, ends, values));
+        assertTrue(Arrays.equals(new int[]{1, 3, -1, -1}, ends));
+        assertTrue(Arrays.equals(new Object[]{"1", "3", null, null}, values));
+
+        assertEquals(2, trie.longestMatches(input, ends, null));
+        assertTrue(Arrays.equals(new int[]{3, 3, -1, -1}, ends));
+    }
+
+    public void testSeesChanges() {
+        TokenTrie trie = new TokenTrie();
+        trie.put(new String[]{"a"}, "1");
+        int[] ends = new int[2];
+        assertEquals(1, trie.longestMatches(new String[]{"a", "b"}, ends, null));
+        trie.put(new String[]{"a", "b"}, "2");
+        assertEquals(1, trie.longestMatches(new String[]{"a", "b"}, ends, null));
+        assertEquals(2, ends[0]);
+        trie.remove(new String[]{"a"});
+        assertEquals(1, trie.shortestMatches(new String[]{"a", "b"}, ends, null));
+        assertEquals(2, ends[0]);
+    }
+
+    public void testAgainstEveryStart() {
+        Random random = new Random(3);
+        for (int round = 0; round < 100; round++) {
+            TokenTrie trie = new TokenTrie();
+            int size = random.nextInt(30);
+            for (int i = 0; i < size; i++) {
+                String[] key = randomTokens(random, 1, 4);
+                trie.put(key, Arrays.toString(key));
+            }
+            for (int q = 0; q < 20; q++) {
+                String[] input = randomTokens(random, 0, 12);
+                for (boolean longest : new boolean[]{false, true}) {
+                    int[] expectedEnds = new int[input.length];
+                    Object[] expectedValues = new Object[input.length];
+                    int expected = walkEveryStart(trie, input, longest, expectedEnds, expectedValues);
+                    int[] ends = new int[input.length];
+                    Object[] values = new Object[input.length];
+                    int count = longest ? trie.longestMatches(input, ends, values)
+                            : trie.shortestMatches(input, ends, values);
+                    String name = Arrays.toString(input) + " longest=" + longest;
+                    assertEquals(name, expected, count);
+                    assertTrue(name, Arrays.equals(expectedEnds, ends));
+                    assertTrue(name, Arrays.equals(expectedValues, values));
+                }
+            }
+        }
+    }
+
+    private static String[] randomTokens(Random random, int min, int max) {
+        String[] tokens = new String[min + random.nextInt(max - min + 1)];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = TOKENS[random.nextInt(TOKENS.length)];
+        }
+        return tokens;
+    }
+
+    private static int walkEveryStart(TokenTrie trie, String[] input, boolean longest, int[] ends, Object[] values) {
+        int count = 0;
+        for (int start = 0; start < input.length; start++) {
+            ends[start] = -1;
+            for (int end = start + 1; end <= input.length; end++) {
+                Object value = trie.match(Arrays.copyOfRange(input, start, end));
+                if (value != null && isKey(trie, input, start, end)) {
+                    ends[start] = end;
+                    values[start] = value;
+                    if (!longest) {
+                        break;
+                    }
+                }
+            }
+            if (ends[start] > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // match() reports the last pattern on the path, so check the exact key
+    private static boolean isKey(TokenTrie trie, String[] input, int start, int end) {
+        String[] key = Arrays.copyOfRange(input, start, end);
+        return Arrays.toString(key).equals(trie.match(key));
+    }
+}
@@ -0,0 +1,89 @@
+package com.skplanet.nlp.trie;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+public class TrieHandleTest extends TestCase {
+    private File delta;
+
+    @Override
+    protected void setUp() throws IOException {
+        delta = File.createTempFile("delta", ".txt");
+    }
+
+    @Override
+    protected void tearDown() {
+        delta.delete();
+    }
+
+    public void testReload() throws IOException {
+        Trie trie = new Trie();
+        trie.put("a", "1");
+        trie.put("b", "2");
+        TrieHandle handle = new TrieHandle(trie);
+        Trie first = handle.get();
+
+        write("# comment\n+\tc\t3\n-\ta\n\n+\t가나\t4\n");
+        Trie next = handle.reload(delta);
+        assertSame(next, handle.get());
+        assertTrue(next.isFrozen());
+        assertNull(next.match("a"));
+        assertEquals("2", next.match("b").getValue());
+        assertEquals("3", next.match("c").getValue());
+        assertEquals("4", next.match("가나").getValue());
+        assertFalse(next.put("d", "5"));
+        // the previous snapshot is untouched
+        assertEquals("1", first.match("a").getValue());
+        assertNull(first.match("c"));
+        assertEquals(1, handle.getVersion());
+        assertEquals(1, handle.getReloadCount());
+    }
+
+    public void testFailedReloads() throws IOException {
+        Trie trie = new Trie();
+        trie.put("a", "1");
+        TrieHandle handle = new TrieHandle(trie);
+        TrieMetrics metrics = new TrieMetrics();
+        handle.setMetrics(metrics);
+        Trie first = handle.get();
+
+        write("+\tb\t2\n?\tc\n");
+        try {
+            handle.reload(delta);
+            fail();
+        } catch (IOException e) {
+            // malformed line
+        }
+        try {
+            handle.reload(null);
+            fail();
+        } catch (NullPointerException e) {
+            // not an IOException, but a failed reload all the same
+        }
+        assertSame(first, handle.get());
+        assertNull(handle.get().match("b"));
+        assertEquals(0, handle.getVersion());
+        assertEquals(0, handle.getReloadCount());
+        assertEquals(2, handle.getFailedReloadCount());
+        assertEquals(2, metrics.getFailedReloadCount());
+
+        write("+\tb\t2\n");
+        handle.reload(delta);
+        assertEquals(1, handle.getReloadCount());
+        assertEquals(1, metrics.getReloadCount());
+    }
+
+    private void write(String text) throws IOException {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(delta), "UTF-8");
+        try {
+            writer.write(text);
+        } finally {
+            writer.close();
+        }
+    }
+}